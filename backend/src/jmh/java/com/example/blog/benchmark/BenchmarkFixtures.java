@@ -0,0 +1,85 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.enums.Ethnic;
+import com.example.blog.enums.ImageType;
+import com.example.blog.enums.PostCategory;
+import com.example.blog.model.Image;
+import com.example.blog.model.Post;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.MediaUrlResolver;
+import com.example.blog.util.TextUtil;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+
+/*
+ * Shared sample data and hand-wired beans for the benchmarks (no Spring context is started)
+ */
+final class BenchmarkFixtures {
+
+    static final String DRIVE_ID = "1AbCdEfGhIjKlMnOpQrStUvWxYz012345";
+    static final String DRIVE_VIEW_LINK = "https://drive.google.com/file/d/" + DRIVE_ID + "/view?usp=drivesdk";
+    static final String JWT_SECRET = "benchmark_secret_benchmark_secret_benchmark_secret_benchmark_secret";
+
+    static final String VIETNAMESE_TITLE = "Lễ hội cồng chiêng Tây Nguyên và nhà dài truyền thống của người Ê Đê ở Đắk Lắk";
+
+    private BenchmarkFixtures() {
+    }
+
+    static Post post(int index, int paragraphs) {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < paragraphs; i++) {
+            content.append("<p>Nhà dài của người Ê Đê được dựng bằng gỗ, tre, nứa; mỗi gian dành cho một gia đình nhỏ. ")
+                   .append("<img src=\"https://lh3.googleusercontent.com/drive-storage/").append(DRIVE_ID).append("=s220\"/>")
+                   .append(" Cầu thang lên nhà được tạc hình bầu ngực và vầng trăng.</p>");
+        }
+        return Post.builder()
+                .id("post-" + index)
+                .title(VIETNAMESE_TITLE)
+                .titleNoAccent(TextUtil.foldVietnamese(VIETNAMESE_TITLE))
+                .language("vi")
+                .category(PostCategory.NEWS)
+                .content(content.toString())
+                .enable(true)
+                .createdUser("admin")
+                .updatedUser("admin")
+                .createdAt(Instant.parse("2024-09-01T08:00:00Z"))
+                .updatedAt(Instant.parse("2024-09-02T08:00:00Z"))
+                .build();
+    }
+
+    static Image image() {
+        return image(0);
+    }
+
+    /* distinct ids and names, repeated ethnic/type values, as in a real gallery page */
+    static Image image(int index) {
+        String driveId = index == 0 ? DRIVE_ID : DRIVE_ID.substring(0, 25) + String.format("%08d", index);
+        Ethnic[] ethnics = Ethnic.values();
+        return Image.builder()
+                .id(driveId)
+                .driveId(driveId)
+                .name("nha-dai-" + index + ".jpg")
+                .mimeType("image/jpeg")
+                .thumbnailUrl("https://lh3.googleusercontent.com/drive-storage/" + driveId + "=s220")
+                .ethnic(ethnics[index % ethnics.length])
+                .type(index % 10 == 0 ? ImageType.MODEL_3D : ImageType.NORMAL)
+                .createdAt(Instant.parse("2024-09-01T08:00:00Z").plusSeconds(index))
+                .build();
+    }
+
+    static MediaUrlResolver mediaUrlResolver(boolean signed) {
+        MediaUrlSigner signer = new MediaUrlSigner(signed, signed ? JWT_SECRET : "", 21600, 86400);
+        return new MediaUrlResolver("https://media.example.com", signer);
+    }
+
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.config.JacksonConfig;
+import com.example.blog.dto.ImageDto;
+import com.example.blog.mapper.ImageMapper;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Offline gallery sync payload (ImageDto page) in each negotiated format: server write cost and client parse cost.
+ * Factories come from JacksonConfig and the builder mirrors spring.jackson.*, as the served converters do.
+ * Encoded sizes are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BinaryFormatBenchmark {
+
+    @Param({"100", "2000"})
+    private int pageSize;
+
+    @Param({"json", "smile", "cbor", "cbor-stringref"})
+    private String format;
+
+    private ObjectMapper mapper;
+    private PageImpl<ImageDto> page;
+    private byte[] encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .serializationInclusion(JsonInclude.Include.NON_NULL);
+        switch (format) {
+            case "smile":
+                builder.factory(JacksonConfig.smileFactory());
+                break;
+            case "cbor":
+                builder.factory(JacksonConfig.cborFactory(false));
+                break;
+            case "cbor-stringref":
+                builder.factory(JacksonConfig.cborFactory(true));
+                break;
+            default:
+                break;
+        }
+        mapper = builder.build();
+
+        ImageMapper imageMapper = new ImageMapper(BenchmarkFixtures.mediaUrlResolver(true));
+        List<ImageDto> images = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            images.add(imageMapper.toDto(BenchmarkFixtures.image(i)));
+        }
+        page = new PageImpl<>(images, PageRequest.of(0, pageSize), pageSize);
+        encoded = mapper.writeValueAsBytes(page);
+        System.out.printf("%n%s, %d images: %d bytes%n", format, pageSize, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public JsonNode parse() throws IOException {
+        return mapper.readTree(encoded);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.enums.Roles;
+import com.example.blog.security.JwtService;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Token issue on login and token verification on every authenticated request (JwtAuthFilter)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+    private final List<Roles> roles = List.of(Roles.values());
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService();
+        BenchmarkFixtures.setField(jwtService, "secret", BenchmarkFixtures.JWT_SECRET);
+        BenchmarkFixtures.setField(jwtService, "expirationMs", 86_400_000L);
+        token = jwtService.generate("admin", roles);
+    }
+
+    @Benchmark
+    public String generate() {
+        return jwtService.generate("admin", roles);
+    }
+
+    @Benchmark
+    public Jws<Claims> parse() {
+        return jwtService.parse(token);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.dto.ImageDto;
+import com.example.blog.dto.PostDto;
+import com.example.blog.mapper.ImageMapper;
+import com.example.blog.mapper.PostMapper;
+import com.example.blog.model.Image;
+import com.example.blog.model.Post;
+import com.example.blog.service.MediaUrlResolver;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Entity -> DTO mapping cost per item; list endpoints pay this once per row
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"false", "true"})
+    private boolean signedUrls;
+
+    private PostMapper postMapper;
+    private ImageMapper imageMapper;
+    private Post post;
+    private Image image;
+
+    @Setup
+    public void setup() {
+        MediaUrlResolver resolver = BenchmarkFixtures.mediaUrlResolver(signedUrls);
+        postMapper = new PostMapper();
+        imageMapper = new ImageMapper(resolver);
+        post = BenchmarkFixtures.post(0, 20);
+        image = BenchmarkFixtures.image();
+    }
+
+    @Benchmark
+    public PostDto postToDto() {
+        return postMapper.toDto(post);
+    }
+
+    @Benchmark
+    public ImageDto imageToDto() {
+        return imageMapper.toDto(image);
+    }
+}
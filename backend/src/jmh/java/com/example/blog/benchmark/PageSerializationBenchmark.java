@@ -0,0 +1,106 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.dto.ImageDto;
+import com.example.blog.dto.PostDto;
+import com.example.blog.dto.PostSummaryDto;
+import com.example.blog.mapper.ImageMapper;
+import com.example.blog.mapper.PostMapper;
+import com.example.blog.model.Post;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * JSON body of list pages as written by the MVC converter: full PostDto rows (previous list response)
+ * against the PostSummaryDto rows GET /api/posts returns now, and a gallery page of ImageDto.
+ * "tuned" is the application's mapper setup (Blackbird, non_null); gzip adds what server.compression costs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "100"})
+    private int pageSize;
+
+    @Param({"5", "40"})
+    private int paragraphsPerPost;
+
+    @Param({"plain", "tuned"})
+    private String mapperSetup;
+
+    private ObjectMapper objectMapper;
+    private Page<PostDto> page;
+    private Page<PostSummaryDto> summaryPage;
+    private Page<ImageDto> imagePage;
+
+    @Setup
+    public void setup() {
+        // same defaults Spring Boot applies to its auto-configured mapper, plus JacksonConfig / spring.jackson.* when tuned
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("tuned".equals(mapperSetup)) {
+            builder.modulesToInstall(new BlackbirdModule())
+                   .serializationInclusion(JsonInclude.Include.NON_NULL);
+        }
+        objectMapper = builder.build();
+        ImageMapper imageMapper = new ImageMapper(BenchmarkFixtures.mediaUrlResolver(true));
+        List<ImageDto> images = new ArrayList<>(pageSize);
+        PostMapper postMapper = new PostMapper();
+        List<PostDto> content = new ArrayList<>(pageSize);
+        List<PostSummaryDto> summaries = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Post post = BenchmarkFixtures.post(i, paragraphsPerPost);
+            postMapper.applyDerivedFields(post);
+            content.add(postMapper.toDto(post));
+            summaries.add(postMapper.toSummaryDto(post));
+            images.add(imageMapper.toDto(BenchmarkFixtures.image()));
+        }
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 500);
+        summaryPage = new PageImpl<>(summaries, PageRequest.of(0, pageSize), 500);
+        imagePage = new PageImpl<>(images, PageRequest.of(0, pageSize), 5000);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaryPage);
+    }
+
+    @Benchmark
+    public byte[] serializeImagePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(imagePage);
+    }
+
+    @Benchmark
+    public byte[] serializeImagePageGzip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8192);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, imagePage);
+        }
+        return bytes.toByteArray();
+    }
+}
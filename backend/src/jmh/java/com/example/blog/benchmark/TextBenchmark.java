@@ -0,0 +1,74 @@
+package com.example.blog.benchmark;
+
+import com.example.blog.util.TextUtil;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * Search normalization and Drive thumbnail URL derivation, both run on every write and on mapper fallbacks.
+ * The legacy* methods keep the previous implementations as a baseline for TextUtil.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TextBenchmark {
+
+    private String longTitle;
+
+    @Setup
+    public void setup() {
+        longTitle = BenchmarkFixtures.VIETNAMESE_TITLE.repeat(8);
+    }
+
+    @Benchmark
+    public String foldTitle() {
+        return TextUtil.foldVietnamese(BenchmarkFixtures.VIETNAMESE_TITLE);
+    }
+
+    @Benchmark
+    public String foldLongText() {
+        return TextUtil.foldVietnamese(longTitle);
+    }
+
+    @Benchmark
+    public String legacyUnaccentTitle() {
+        return legacyUnaccent(BenchmarkFixtures.VIETNAMESE_TITLE);
+    }
+
+    @Benchmark
+    public String legacyUnaccentLongText() {
+        return legacyUnaccent(longTitle);
+    }
+
+    @Benchmark
+    public String thumbnailFromDriveId() {
+        return TextUtil.driveThumbnailUrl(BenchmarkFixtures.DRIVE_ID);
+    }
+
+    @Benchmark
+    public String thumbnailFromViewLink() {
+        return TextUtil.driveThumbnailUrl(BenchmarkFixtures.DRIVE_VIEW_LINK);
+    }
+
+    @Benchmark
+    public String legacyThumbnailFromViewLink() {
+        Matcher matcher = Pattern.compile("[-\\w]{25,}").matcher(BenchmarkFixtures.DRIVE_VIEW_LINK);
+        return matcher.find()
+                ? "https://lh3.googleusercontent.com/drive-storage/" + matcher.group() + "=s220"
+                : BenchmarkFixtures.DRIVE_VIEW_LINK;
+    }
+
+    private static String legacyUnaccent(String s) {
+        String noMarks = Normalizer.normalize(s, Normalizer.Form.NFD).replaceAll("\\p{M}+", "");
+        return noMarks.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,325 @@
+package com.example.blog.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+ * In-process stand-in for the parts of Drive v3 and YouTube Data v3 the backend calls.
+ * Every folder id yields the same deterministic tree (ids derive from folder id + index), file bytes are a fixed
+ * payload with Range support, and each request can be delayed and failed at a configurable rate.
+ *
+ * Start the backend against it with:
+ *   GDRIVE_ROOT_URL=http://localhost:8089/ GDRIVE_STUB_CREDENTIALS=true U2BE_ROOT_URL=http://localhost:8089/
+ * Standalone: mvn -Pbenchmarks test-compile exec:exec -Dbench.main=com.example.blog.loadtest.FakeGoogleApiServer
+ *   -Dbench.args="--port 8089 --latency-ms 40 --jitter-ms 20 --error-rate 0.01"
+ */
+public class FakeGoogleApiServer implements AutoCloseable {
+
+    private static final Pattern PARENT_QUERY = Pattern.compile("'([^']+)' in parents");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+    private static final String FILES_PATH = "/drive/v3/files";
+    private static final String DOWNLOAD_PATH = "/download/drive/v3/files";
+    private static final Instant EPOCH = Instant.parse("2024-09-01T00:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Options options;
+    private final byte[] filePayload;
+    private final byte[] thumbnailPayload;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public static final class Options {
+        int port = 8089;
+        long latencyMs = 40;
+        long jitterMs = 20;
+        double errorRate = 0.0;
+        int filesPerFolder = 120;
+        int fileSizeBytes = 512 * 1024;
+        int playlistSize = 80;
+        int threads = 128;
+
+        static Options from(LoadTestArgs args) {
+            Options options = new Options();
+            options.port = args.integer("port", options.port);
+            options.latencyMs = args.longValue("latency-ms", options.latencyMs);
+            options.jitterMs = args.longValue("jitter-ms", options.jitterMs);
+            options.errorRate = args.decimal("error-rate", options.errorRate);
+            options.filesPerFolder = args.integer("files-per-folder", options.filesPerFolder);
+            options.fileSizeBytes = args.integer("file-size-bytes", options.fileSizeBytes);
+            options.playlistSize = args.integer("playlist-size", options.playlistSize);
+            options.threads = args.integer("threads", options.threads);
+            return options;
+        }
+    }
+
+    public FakeGoogleApiServer(Options options) {
+        this.options = options;
+        this.filePayload = payload(options.fileSizeBytes, 31);
+        this.thumbnailPayload = payload(4 * 1024, 17);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        FakeGoogleApiServer server = new FakeGoogleApiServer(Options.from(new LoadTestArgs(args)));
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        Thread.currentThread().join();
+    }
+
+    public void start() throws IOException {
+        executor = Executors.newFixedThreadPool(options.threads);
+        server = HttpServer.create(new InetSocketAddress(options.port), 512);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+        server.start();
+        System.out.printf("Fake Google API listening on %s (latency %d+-%d ms, error rate %.3f)%n",
+                baseUrl(), options.latencyMs, options.jitterMs, options.errorRate);
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + "/";
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            simulateLatency();
+            if (ThreadLocalRandom.current().nextDouble() < options.errorRate) {
+                sendJson(exchange, 503, Map.of("error", Map.of("code", 503, "message", "Backend Error (injected)")));
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            Map<String, String> query = queryParams(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (path.equals(FILES_PATH) && method.equals("GET")) {
+                listFiles(exchange, query);
+            } else if (path.startsWith(FILES_PATH + "/") || path.startsWith(DOWNLOAD_PATH + "/")) {
+                String fileId = path.substring(path.lastIndexOf('/') + 1);
+                if (method.equals("DELETE")) {
+                    exchange.sendResponseHeaders(204, -1);
+                } else if ("media".equals(query.get("alt")) || path.startsWith(DOWNLOAD_PATH)) {
+                    sendBytes(exchange, filePayload, mimeTypeOf(fileId));
+                } else {
+                    sendJson(exchange, 200, fileMetadata(fileId));
+                }
+            } else if (path.startsWith("/thumbnails/")) {
+                sendBytes(exchange, thumbnailPayload, "image/jpeg");
+            } else if (path.equals("/youtube/v3/playlistItems")) {
+                playlistItems(exchange, query);
+            } else if (path.equals("/youtube/v3/videos")) {
+                videos(exchange, query);
+            } else {
+                // uploads (resumable protocol) are not emulated
+                sendJson(exchange, 501, Map.of("error", Map.of("code", 501, "message", "Not emulated: " + method + " " + path)));
+            }
+        }
+    }
+
+    private void listFiles(HttpExchange exchange, Map<String, String> query) throws IOException {
+        String q = query.getOrDefault("q", "");
+        Matcher parent = PARENT_QUERY.matcher(q);
+        String folderId = parent.find() ? parent.group(1) : "root";
+        boolean videosOnly = q.contains("video/mp4");
+        int pageSize = Integer.parseInt(query.getOrDefault("pageSize", "100"));
+        int offset = Integer.parseInt(query.getOrDefault("pageToken", "0"));
+        int end = Math.min(offset + pageSize, options.filesPerFolder);
+
+        List<Map<String, Object>> files = new ArrayList<>(Math.max(0, end - offset));
+        for (int i = offset; i < end; i++) {
+            files.add(fileMetadata(fileId(folderId, i, videosOnly)));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("files", files);
+        if (end < options.filesPerFolder) {
+            body.put("nextPageToken", String.valueOf(end));
+        }
+        sendJson(exchange, 200, body);
+    }
+
+    private Map<String, Object> fileMetadata(String fileId) {
+        int index = indexOf(fileId);
+        String mimeType = mimeTypeOf(fileId);
+        Map<String, Object> file = new LinkedHashMap<>();
+        file.put("id", fileId);
+        file.put("name", "file-" + index + extensionOf(mimeType));
+        file.put("mimeType", mimeType);
+        file.put("description", "Deterministic fake file " + index);
+        file.put("webViewLink", "https://drive.google.com/file/d/" + fileId + "/view");
+        file.put("thumbnailLink", baseUrl() + "thumbnails/" + fileId);
+        file.put("createdTime", EPOCH.minus(index, ChronoUnit.MINUTES).toString());
+        if (index % 10 == 0 && mimeType.equals("model/gltf-binary")) {
+            file.put("appProperties", Map.of("type", "MODEL_3D"));
+        } else if (index % 7 == 0) {
+            file.put("appProperties", Map.of("type", "PHOTO_360"));
+        }
+        return file;
+    }
+
+    private void playlistItems(HttpExchange exchange, Map<String, String> query) throws IOException {
+        int maxResults = Integer.parseInt(query.getOrDefault("maxResults", "5"));
+        int offset = Integer.parseInt(query.getOrDefault("pageToken", "0"));
+        int end = Math.min(offset + maxResults, options.playlistSize);
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (int i = offset; i < end; i++) {
+            items.add(Map.of("id", "item-" + i, "contentDetails", Map.of("videoId", videoId(i))));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("items", items);
+        if (end < options.playlistSize) {
+            body.put("nextPageToken", String.valueOf(end));
+        }
+        sendJson(exchange, 200, body);
+    }
+
+    private void videos(HttpExchange exchange, Map<String, String> query) throws IOException {
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (String id : query.getOrDefault("id", "").split(",")) {
+            if (id.isEmpty()) continue;
+            items.add(Map.of(
+                    "id", id,
+                    "snippet", Map.of(
+                            "title", "Video " + id,
+                            "thumbnails", Map.of("high", Map.of("url", baseUrl() + "thumbnails/" + id))),
+                    "statistics", Map.of("viewCount", "1000")));
+        }
+        sendJson(exchange, 200, Map.of("items", items));
+    }
+
+    /* ids are >= 25 chars of [-\w] so TextUtil.extractDriveId recognizes them */
+    private static String fileId(String folderId, int index, boolean video) {
+        String prefix = folderId.length() > 20 ? folderId.substring(0, 20) : folderId;
+        return prefix + (video ? "-v" : "-f") + String.format("%06d", index);
+    }
+
+    private static int indexOf(String fileId) {
+        int dash = fileId.lastIndexOf('-');
+        try {
+            return Integer.parseInt(fileId.substring(dash + 2));
+        } catch (RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private static String mimeTypeOf(String fileId) {
+        int dash = fileId.lastIndexOf('-');
+        if (dash >= 0 && fileId.startsWith("-v", dash)) {
+            return "video/mp4";
+        }
+        return indexOf(fileId) % 10 == 0 ? "model/gltf-binary" : "image/jpeg";
+    }
+
+    private static String extensionOf(String mimeType) {
+        switch (mimeType) {
+            case "video/mp4": return ".mp4";
+            case "model/gltf-binary": return ".glb";
+            default: return ".jpg";
+        }
+    }
+
+    private static String videoId(int index) {
+        return String.format("vid%08d", index);
+    }
+
+    private void simulateLatency() {
+        long delay = options.latencyMs;
+        if (options.jitterMs > 0) {
+            delay += ThreadLocalRandom.current().nextLong(-options.jitterMs, options.jitterMs + 1);
+        }
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    private static void sendBytes(HttpExchange exchange, byte[] bytes, String contentType) throws IOException {
+        int start = 0;
+        int end = bytes.length - 1;
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        Matcher matcher = range == null ? null : RANGE.matcher(range);
+        if (matcher != null && matcher.matches()) {
+            if (matcher.group(1).isEmpty()) {
+                start = Math.max(0, bytes.length - Integer.parseInt(matcher.group(2)));
+            } else {
+                start = Integer.parseInt(matcher.group(1));
+                if (!matcher.group(2).isEmpty()) {
+                    end = Math.min(end, Integer.parseInt(matcher.group(2)));
+                }
+            }
+            if (start > end) {
+                exchange.getResponseHeaders().set("Content-Range", "bytes */" + bytes.length);
+                exchange.sendResponseHeaders(416, -1);
+                return;
+            }
+            status = 206;
+            exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + bytes.length);
+        }
+        int length = end - start + 1;
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Accept-Ranges", "bytes");
+        exchange.sendResponseHeaders(status, length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes, start, length);
+        }
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.merge(key, value, (a, b) -> a + "," + b);
+        }
+        return params;
+    }
+
+    private static byte[] payload(int size, int seed) {
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < size; i++) {
+            bytes[i] = (byte) (i * seed + (i >>> 8));
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.blog.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Closed-loop load against a running backend: N workers pick gallery browsing, proxy streaming or search by weight,
+ * while one extra worker triggers a Drive sync at a fixed interval. Latencies recorded after warm-up are reported as
+ * throughput and p50/p99/max per operation, on stdout and in target/loadtest-result.json.
+ *
+ * Typical run (fake Google APIs in the same JVM, backend started separately against http://localhost:8089/):
+ *   mvn -Pbenchmarks test-compile exec:exec -Dbench.main=com.example.blog.loadtest.LoadScenario
+ *     -Dbench.args="--target http://localhost:9090 --with-fake-google --duration-seconds 120 --concurrency 64"
+ *
+ * --compare-virtual-threads starts the backend jar itself, twice, with spring.threads.virtual.enabled=false and
+ * =true, and runs a proxy-heavy mix (no sync worker) against each; both result sets go into one report. The backend
+ * needs JDK 21+ for the virtual-thread run; Mongo and other settings come from the environment as usual, extra
+ * properties from --backend-args as comma-separated key=value (e.g. media.proxy.reactive=false to load the blocking
+ * MVC proxy):
+ *   mvn -Pbenchmarks test-compile exec:exec -Dbench.main=com.example.blog.loadtest.LoadScenario
+ *     -Dbench.args="--compare-virtual-threads --backend-jar target/daklak-0.0.1-SNAPSHOT.jar --with-fake-google
+ *     --concurrency 400 --duration-seconds 60"
+ */
+public class LoadScenario {
+
+    enum Operation { GALLERY, PROXY, SEARCH, SYNC }
+
+    private static final String[] ETHNICS = {"EDE", "JRAI", "MNONG"};
+    private static final String[] SEARCH_TERMS = {"nha dai", "cong chieng", "Đắk Lắk", "le hoi", "ede", "buon ma thuot"};
+    private static final int MAX_KNOWN_MEDIA_URLS = 2_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final List<String> knownMediaUrls = new CopyOnWriteArrayList<>();
+    private final AtomicLong proxiedBytes = new AtomicLong();
+
+    private final String target;
+    private final int concurrency;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final long syncIntervalMillis;
+    private final int[] weights;
+
+    LoadScenario(LoadTestArgs args) {
+        this(args, args.string("target", "http://localhost:9090"), false);
+    }
+
+    /* proxyOnly: mostly proxy streaming, gallery only to discover media URLs, no sync worker */
+    LoadScenario(LoadTestArgs args, String base, boolean proxyOnly) {
+        this.target = base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
+        this.concurrency = args.integer("concurrency", 32);
+        this.warmupNanos = Duration.ofSeconds(args.longValue("warmup-seconds", 15)).toNanos();
+        this.durationNanos = Duration.ofSeconds(args.longValue("duration-seconds", 60)).toNanos();
+        this.syncIntervalMillis = proxyOnly ? 0 : Duration.ofSeconds(args.longValue("sync-interval-seconds", 30)).toMillis();
+        this.weights = new int[] {
+                args.integer("weight-gallery", proxyOnly ? 5 : 55),
+                args.integer("weight-proxy", proxyOnly ? 95 : 30),
+                args.integer("weight-search", proxyOnly ? 0 : 15)
+        };
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestArgs options = new LoadTestArgs(args);
+        Path report = Path.of(options.string("report", "target/loadtest-result.json"));
+        FakeGoogleApiServer.Options fakeOptions = FakeGoogleApiServer.Options.from(options);
+        FakeGoogleApiServer fake = null;
+        if (options.flag("with-fake-google")) {
+            fake = new FakeGoogleApiServer(fakeOptions);
+            fake.start();
+        }
+        try {
+            if (options.flag("compare-virtual-threads")) {
+                String fakeGoogleUrl = fake != null ? "http://localhost:" + fakeOptions.port + "/" : null;
+                writeReport(compareVirtualThreads(options, fakeGoogleUrl), report);
+            } else {
+                writeReport(new LoadScenario(options).run(), report);
+            }
+        } finally {
+            if (fake != null) {
+                fake.close();
+            }
+        }
+    }
+
+    /*
+     * Same proxy load against a fresh backend with platform request threads, then with virtual ones
+     */
+    private static Map<String, Object> compareVirtualThreads(LoadTestArgs options, String fakeGoogleUrl)
+            throws IOException, InterruptedException {
+        if (Runtime.version().feature() < 21) {
+            System.out.println("Warning: running on JDK " + Runtime.version().feature()
+                    + "; Spring Boot ignores spring.threads.virtual.enabled below 21, so both runs use platform threads");
+        }
+        int port = options.integer("backend-port", 9090);
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (boolean virtualThreads : new boolean[] {false, true}) {
+            String label = virtualThreads ? "virtualThreads" : "platformThreads";
+            Path log = Path.of(options.string("backend-log-dir", "target"), "loadtest-backend-" + label + ".log");
+            Process backend = startBackend(options, fakeGoogleUrl, port, virtualThreads, log);
+            try {
+                String target = "http://localhost:" + port;
+                awaitReady(backend, target, Duration.ofSeconds(options.longValue("startup-timeout-seconds", 180)), log);
+                System.out.printf("%n=== spring.threads.virtual.enabled=%s ===%n", virtualThreads);
+                results.put(label, new LoadScenario(options, target, true).run());
+            } finally {
+                stopBackend(backend);
+            }
+        }
+        return results;
+    }
+
+    private static Process startBackend(LoadTestArgs options, String fakeGoogleUrl, int port, boolean virtualThreads,
+                                        Path log) throws IOException {
+        String jar = options.string("backend-jar", null);
+        if (jar == null) {
+            throw new IllegalArgumentException("--compare-virtual-threads needs --backend-jar <path to the Spring Boot jar>");
+        }
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(), "-jar", jar,
+                "--server.port=" + port,
+                "--spring.threads.virtual.enabled=" + virtualThreads));
+        for (String property : options.string("backend-args", "").split(",")) {
+            if (!property.isBlank()) {
+                command.add("--" + property.trim());
+            }
+        }
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        if (fakeGoogleUrl != null) {
+            builder.environment().put("GDRIVE_ROOT_URL", fakeGoogleUrl);
+            builder.environment().put("GDRIVE_STUB_CREDENTIALS", "true");
+            builder.environment().put("U2BE_ROOT_URL", fakeGoogleUrl);
+        }
+        if (log.getParent() != null) {
+            Files.createDirectories(log.getParent());
+        }
+        builder.redirectOutput(log.toFile());
+        System.out.println("Starting backend (virtual threads " + virtualThreads + "), log in " + log.toAbsolutePath());
+        return builder.start();
+    }
+
+    private static void awaitReady(Process backend, String target, Duration timeout, Path log)
+            throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!backend.isAlive()) {
+                throw new IllegalStateException("Backend exited with " + backend.exitValue() + ", see " + log.toAbsolutePath());
+            }
+            try {
+                HttpRequest health = get(target + "/actuator/health").timeout(Duration.ofSeconds(2)).build();
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Backend not ready after " + timeout.toSeconds() + "s, see " + log.toAbsolutePath());
+    }
+
+    private static void stopBackend(Process backend) throws InterruptedException {
+        backend.destroy();
+        if (!backend.waitFor(30, TimeUnit.SECONDS)) {
+            backend.destroyForcibly().waitFor();
+        }
+    }
+
+    Map<String, Object> run() throws InterruptedException {
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long stopAt = measureFrom + durationNanos;
+        List<Recorder> recorders = new ArrayList<>();
+        boolean withSync = syncIntervalMillis > 0;
+        CountDownLatch done = new CountDownLatch(concurrency + (withSync ? 1 : 0));
+
+        for (int i = 0; i < concurrency; i++) {
+            Recorder recorder = new Recorder();
+            recorders.add(recorder);
+            startWorker("load-" + i, done, () -> {
+                while (System.nanoTime() < stopAt) {
+                    execute(pickOperation(), recorder, measureFrom);
+                }
+            });
+        }
+        if (withSync) {
+            Recorder syncRecorder = new Recorder();
+            recorders.add(syncRecorder);
+            startWorker("load-sync", done, () -> {
+                while (System.nanoTime() < stopAt) {
+                    execute(Operation.SYNC, syncRecorder, measureFrom);
+                    sleep(syncIntervalMillis);
+                }
+            });
+        }
+
+        System.out.printf("Running %d workers against %s: %ds warm-up, %ds measured%n", concurrency, target,
+                Duration.ofNanos(warmupNanos).toSeconds(), Duration.ofNanos(durationNanos).toSeconds());
+        done.await();
+        return report(recorders);
+    }
+
+    private void startWorker(String name, CountDownLatch done, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } finally {
+                done.countDown();
+            }
+        }, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private Operation pickOperation() {
+        if (knownMediaUrls.isEmpty()) {
+            return Operation.GALLERY;
+        }
+        int total = weights[0] + weights[1] + weights[2];
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        if (roll < weights[0]) return Operation.GALLERY;
+        if (roll < weights[0] + weights[1]) return Operation.PROXY;
+        return Operation.SEARCH;
+    }
+
+    private void execute(Operation operation, Recorder recorder, long measureFrom) {
+        long begin = System.nanoTime();
+        boolean ok;
+        try {
+            switch (operation) {
+                case GALLERY: ok = browseGallery(); break;
+                case PROXY: ok = streamMedia(); break;
+                case SEARCH: ok = search(); break;
+                default: ok = sync(); break;
+            }
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (begin >= measureFrom) {
+            recorder.record(operation, System.nanoTime() - begin, ok);
+        }
+    }
+
+    private boolean browseGallery() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String uri = target + "/api/images?ethnic=" + ETHNICS[random.nextInt(ETHNICS.length)]
+                + "&page=" + random.nextInt(5) + "&size=20";
+        HttpResponse<byte[]> response = httpClient.send(get(uri).build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        if (knownMediaUrls.size() < MAX_KNOWN_MEDIA_URLS) {
+            for (JsonNode image : objectMapper.readTree(response.body()).path("content")) {
+                String url = image.path("url").asText(null);
+                if (url != null && knownMediaUrls.size() < MAX_KNOWN_MEDIA_URLS) {
+                    knownMediaUrls.add(url);
+                }
+            }
+        }
+        return true;
+    }
+
+    /* half of the requests ask for the first 64 KiB only, like a viewer probing a large file */
+    private boolean streamMedia() throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        HttpRequest.Builder request = get(knownMediaUrls.get(random.nextInt(knownMediaUrls.size())));
+        if (random.nextBoolean()) {
+            request.header("Range", "bytes=0-65535");
+        }
+        HttpResponse<InputStream> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+        long read = 0;
+        try (InputStream body = response.body()) {
+            byte[] buffer = new byte[16 * 1024];
+            for (int n; (n = body.read(buffer)) != -1; ) {
+                read += n;
+            }
+        }
+        proxiedBytes.addAndGet(read);
+        return response.statusCode() == 200 || response.statusCode() == 206;
+    }
+
+    private boolean search() throws IOException, InterruptedException {
+        String term = SEARCH_TERMS[ThreadLocalRandom.current().nextInt(SEARCH_TERMS.length)];
+        String uri = target + "/api/posts?page=0&size=10&q=" + URLEncoder.encode(term, StandardCharsets.UTF_8);
+        return httpClient.send(get(uri).build(), HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+    }
+
+    private boolean sync() throws IOException, InterruptedException {
+        String ethnic = ETHNICS[ThreadLocalRandom.current().nextInt(ETHNICS.length)];
+        HttpRequest request = get(target + "/api/ggdrive/sync-images?ethnic=" + ethnic)
+                .timeout(Duration.ofMinutes(5))
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() / 100 == 2;
+    }
+
+    private static HttpRequest.Builder get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(Duration.ofSeconds(30)).GET();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> report(List<Recorder> recorders) {
+        double seconds = durationNanos / 1e9;
+        Map<String, Object> results = new LinkedHashMap<>();
+        System.out.printf("%-8s %9s %7s %10s %9s %9s %9s%n", "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (Operation operation : Operation.values()) {
+            long[] latencies = recorders.stream()
+                    .map(r -> r.latencies(operation))
+                    .flatMapToLong(Arrays::stream)
+                    .sorted()
+                    .toArray();
+            long errors = recorders.stream().mapToLong(r -> r.errors.getOrDefault(operation, 0L)).sum();
+            if (latencies.length == 0) {
+                continue;
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", latencies.length);
+            stats.put("errors", errors);
+            stats.put("throughputPerSecond", latencies.length / seconds);
+            stats.put("p50Millis", percentile(latencies, 0.50) / 1e6);
+            stats.put("p99Millis", percentile(latencies, 0.99) / 1e6);
+            stats.put("maxMillis", latencies[latencies.length - 1] / 1e6);
+            results.put(operation.name().toLowerCase(), stats);
+            System.out.printf("%-8s %9d %7d %10.1f %9.1f %9.1f %9.1f%n", operation.name().toLowerCase(),
+                    latencies.length, errors, latencies.length / seconds,
+                    stats.get("p50Millis"), stats.get("p99Millis"), stats.get("maxMillis"));
+        }
+        results.put("proxiedBytes", proxiedBytes.get());
+        return results;
+    }
+
+    private static void writeReport(Map<String, Object> results, Path report) throws IOException {
+        if (report.getParent() != null) {
+            Files.createDirectories(report.getParent());
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(report.toFile(), results);
+        System.out.println("Report written to " + report.toAbsolutePath());
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    /* per-worker, so recording needs no synchronization; merged once at the end */
+    private static final class Recorder {
+        private final Map<Operation, long[]> samples = new EnumMap<>(Operation.class);
+        private final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        private final Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+
+        void record(Operation operation, long nanos, boolean ok) {
+            int count = counts.getOrDefault(operation, 0);
+            long[] values = samples.computeIfAbsent(operation, o -> new long[1024]);
+            if (count == values.length) {
+                values = Arrays.copyOf(values, count * 2);
+                samples.put(operation, values);
+            }
+            values[count] = nanos;
+            counts.put(operation, count + 1);
+            if (!ok) {
+                errors.merge(operation, 1L, Long::sum);
+            }
+        }
+
+        long[] latencies(Operation operation) {
+            long[] values = samples.get(operation);
+            return values == null ? new long[0] : Arrays.copyOf(values, counts.get(operation));
+        }
+    }
+}
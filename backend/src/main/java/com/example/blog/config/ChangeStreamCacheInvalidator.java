@@ -0,0 +1,207 @@
+package com.example.blog.config;
+
+import com.example.blog.enums.PostCategory;
+import com.example.blog.service.CatalogService;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/*
+ * Keeps every replica's local caches in line with the database, whichever node (or sync run) did the write:
+ * one change stream on posts/images/clips/videos evicts homeCache/aboutCache entries and schedules a catalog rebuild.
+ * Local @CacheEvict still covers this node's own writes immediately; the stream covers everyone else's.
+ * Needs a replica set (change streams are not available on a standalone mongod).
+ */
+@Component
+@Log4j2
+@ConditionalOnProperty(name = "cache.invalidation.change-streams.enabled", havingValue = "true")
+public class ChangeStreamCacheInvalidator implements DisposableBean {
+
+    private static final String POSTS = "posts";
+    private static final Set<String> MEDIA = Set.of("images", "clips", "videos");
+    private static final String HOME_CACHE = "homeCache";
+    private static final String ABOUT_CACHE = "aboutCache";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int NOT_A_REPLICA_SET = 40573;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final CacheManager cacheManager;
+    private final CatalogService catalogService;
+    private final AtomicBoolean mediaChanged = new AtomicBoolean();
+
+    private volatile boolean running;
+    private Thread watcher;
+    /* only touched by the watcher thread */
+    private BsonDocument resumeToken;
+
+    public ChangeStreamCacheInvalidator(MongoTemplate mongoTemplate, CacheManager cacheManager,
+                                        CatalogService catalogService) {
+        this.mongoTemplate = mongoTemplate;
+        this.cacheManager = cacheManager;
+        this.catalogService = catalogService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        watcher = new Thread(this::watch, "cache-change-stream");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /*
+     * A sync writes thousands of media documents; they are folded into one catalog rebuild per interval
+     */
+    @Scheduled(fixedDelayString = "${cache.invalidation.media-debounce-ms:2000}")
+    public void flushMediaChanges() {
+        if (mediaChanged.getAndSet(false)) {
+            catalogService.requestRebuild();
+        }
+    }
+
+    private void watch() {
+        long backoffMillis = 1_000;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = open()) {
+                log.info("Watching {} and {} for cache invalidation", POSTS, MEDIA);
+                backoffMillis = 1_000;
+                while (running) {
+                    ChangeStreamDocument<Document> change = cursor.tryNext();
+                    if (change != null) {
+                        apply(change);
+                    }
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                }
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == NOT_A_REPLICA_SET) {
+                    log.error("Change streams need a replica set; cross-replica cache invalidation is off", e);
+                    return;
+                }
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // the oplog no longer reaches back to our position: anything may have changed meanwhile
+                    resumeToken = null;
+                    evictAll();
+                }
+                backoffMillis = retryAfter(e, backoffMillis);
+            } catch (MongoException | IllegalStateException e) {
+                backoffMillis = retryAfter(e, backoffMillis);
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> open() {
+        // _id (the resume token) must survive the projection
+        List<Bson> pipeline = List.of(
+                Aggregates.match(Filters.in("ns.coll", POSTS, "images", "clips", "videos")),
+                Aggregates.project(Projections.include("operationType", "ns", "fullDocument.category", "fullDocument.language")));
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb().watch(pipeline)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.startAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
+
+    private void apply(ChangeStreamDocument<Document> change) {
+        String collection = change.getNamespace() != null ? change.getNamespace().getCollectionName() : null;
+        if (POSTS.equals(collection)) {
+            evictPost(change.getOperationType(), change.getFullDocument());
+        } else if (collection != null && MEDIA.contains(collection)) {
+            mediaChanged.set(true);
+        } else {
+            // drop / dropDatabase / invalidate
+            evictAll();
+        }
+    }
+
+    /*
+     * An inserted post can only affect its own category/language entry; for replace, update and delete the previous
+     * category is unknown (no pre-images), so both small caches are cleared, as the local @CacheEvict does
+     */
+    private void evictPost(OperationType operation, Document post) {
+        if (operation == OperationType.INSERT && post != null) {
+            String language = post.getString("language");
+            String key = language != null ? language : "default";
+            if (PostCategory.HOME.name().equals(post.getString("category"))) {
+                evict(HOME_CACHE, key);
+            } else if (PostCategory.ABOUT.name().equals(post.getString("category"))) {
+                evict(ABOUT_CACHE, key);
+            }
+            return;
+        }
+        clear(HOME_CACHE);
+        clear(ABOUT_CACHE);
+    }
+
+    private void evictAll() {
+        clear(HOME_CACHE);
+        clear(ABOUT_CACHE);
+        mediaChanged.set(true);
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private long retryAfter(RuntimeException e, long backoffMillis) {
+        if (!running) {
+            return backoffMillis;
+        }
+        log.warn("Cache invalidation change stream failed, reopening in {} ms: {}", backoffMillis, e.getMessage());
+        try {
+            Thread.sleep(backoffMillis);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+        return Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+    }
+
+    @Override
+    public void destroy() {
+        running = false;
+        if (watcher != null) {
+            watcher.interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.blog.config;
+
+import com.example.blog.mapper.PostMapper;
+import com.example.blog.model.Clip;
+import com.example.blog.model.Image;
+import com.example.blog.model.Post;
+import com.example.blog.model.User;
+import com.example.blog.util.TextUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/*
+ * One-off fill of fields that write paths now derive (post excerpt/search tokens, media thumbnails)
+ * for documents written before they existed. Only documents missing them are touched, so re-runs are no-ops.
+ * Also turns a missing/null post enable and user enabled into true (what readers used to assume), so listings
+ * can filter with a single equality instead of $in [null, true].
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "backfill.derived-fields.enabled", havingValue = "true", matchIfMissing = true)
+public class DerivedFieldsBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final MongoTemplate mongoTemplate;
+    private final PostMapper postMapper;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            normalizeEnableFlags();
+            backfillPosts();
+            backfillThumbnails(Image.class, Image::getId,
+                    (image, update) -> update.set("thumbnailUrl", fallbackThumbnail(image.getDriveId(), image.getUrl())));
+            backfillThumbnails(Clip.class, Clip::getId,
+                    (clip, update) -> update.set("thumbnailUrl", fallbackThumbnail(clip.getDriveId(), clip.getUrl())));
+        } catch (RuntimeException e) {
+            log.error("Derived field backfill failed; it will be retried on next startup", e);
+        }
+    }
+
+    private void normalizeEnableFlags() {
+        // {field: null} matches both missing and explicit null
+        long posts = mongoTemplate.updateMulti(Query.query(Criteria.where("enable").is(null)),
+                Update.update("enable", true), Post.class).getModifiedCount();
+        long users = mongoTemplate.updateMulti(Query.query(Criteria.where("enabled").is(null)),
+                Update.update("enabled", true), User.class).getModifiedCount();
+        log.info("Set missing enable flag on {} posts and {} users", posts, users);
+    }
+
+    private void backfillPosts() {
+        Query stale = Query.query(new Criteria().orOperator(
+                Criteria.where("derivedVersion").exists(false),
+                Criteria.where("derivedVersion").lt(Post.DERIVED_FIELDS_VERSION)));
+        int updated = backfill(Post.class, stale, Post::getId, (post, update) -> {
+            postMapper.applyDerivedFields(post);
+            update.set("titleNoAccent", post.getTitleNoAccent())
+                  .set("excerpt", post.getExcerpt())
+                  .set("coverImageUrl", post.getCoverImageUrl())
+                  .set("contentLength", post.getContentLength())
+                  .set("searchTokens", post.getSearchTokens())
+                  .set("derivedVersion", post.getDerivedVersion());
+        });
+        log.info("Backfilled derived fields on {} posts", updated);
+    }
+
+    private <T> void backfillThumbnails(Class<T> type, Function<T, String> id, BiConsumer<T, Update> derive) {
+        // only documents that never went through this step: a document without a usable fallback is written
+        // with an explicit null, so it is not matched and rewritten again on every startup
+        Query missing = Query.query(Criteria.where("thumbnailUrl").exists(false));
+        int updated = backfill(type, missing, id, derive);
+        log.info("Backfilled thumbnailUrl on {} {} documents", updated, type.getSimpleName());
+    }
+
+    private <T> int backfill(Class<T> type, Query query, Function<T, String> id, BiConsumer<T, Update> derive) {
+        int updated = 0;
+        int pending = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        try (Stream<T> documents = mongoTemplate.stream(query, type)) {
+            for (Iterator<T> it = documents.iterator(); it.hasNext(); ) {
+                T document = it.next();
+                Update update = new Update();
+                derive.accept(document, update);
+                bulk.updateOne(Query.query(Criteria.where("_id").is(id.apply(document))), update);
+                if (++pending == BATCH_SIZE) {
+                    bulk.execute();
+                    updated += pending;
+                    pending = 0;
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+                }
+            }
+        }
+        if (pending > 0) {
+            bulk.execute();
+            updated += pending;
+        }
+        return updated;
+    }
+
+    private String fallbackThumbnail(String driveId, String url) {
+        return TextUtil.driveThumbnailUrl(driveId != null ? driveId : url);
+    }
+}
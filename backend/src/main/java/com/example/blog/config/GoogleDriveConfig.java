@@ -1,5 +1,7 @@
 package com.example.blog.config;
 
+import com.example.blog.service.DriveRateLimiter;
+import com.google.api.client.auth.oauth2.BearerToken;
 import com.google.api.client.auth.oauth2.Credential;
 import com.google.api.client.extensions.java6.auth.oauth2.AuthorizationCodeInstalledApp;
 import com.google.api.client.extensions.jetty.auth.oauth2.LocalServerReceiver;
@@ -46,16 +48,40 @@ public class GoogleDriveConfig {
     @Value("${gdrive.retry-count:3}")
     private int retryCount;
 
+    // overridden to point at a local stand-in for load tests
+    @Value("${gdrive.root-url:https://www.googleapis.com/}")
+    private String rootUrl;
+
+    @Value("${gdrive.stub-credentials:false}")
+    private boolean stubCredentials;
+
     @Bean
-    public Drive getDrive() throws IOException {
-        HttpTransport httpTransport = createHttpTransportWithTimeouts();
-        Credential credential = getCredentials(httpTransport);
-        
+    public HttpTransport driveHttpTransport() {
+        return createHttpTransportWithTimeouts();
+    }
+
+    /*
+     * Shared with the reactive media proxy, which calls the Drive REST API directly with this access token
+     */
+    @Bean
+    public Credential driveCredential(HttpTransport driveHttpTransport) throws IOException {
+        if (stubCredentials) {
+            // skips the OAuth browser flow; only usable against a fake Drive server
+            log.warn("gdrive.stub-credentials=true: using a static bearer token, Drive calls go to {}", rootUrl);
+            return new Credential(BearerToken.authorizationHeaderAccessMethod()).setAccessToken("stub-token");
+        }
+        return getCredentials(driveHttpTransport);
+    }
+
+    @Bean
+    public Drive getDrive(HttpTransport driveHttpTransport, Credential driveCredential, DriveRateLimiter driveRateLimiter) {
         // Create HTTP request initializer with timeout and retry settings
         HttpRequestInitializer requestInitializer = new HttpRequestInitializer() {
             @Override
             public void initialize(HttpRequest request) throws IOException {
-                credential.initialize(request);
+                // called right before each request (and each upload chunk) is sent
+                driveRateLimiter.acquire();
+                driveCredential.initialize(request);
                 // Set connection timeout
                 request.setConnectTimeout(connectionTimeout);
                 // Set read timeout for large file uploads
@@ -67,8 +93,9 @@ public class GoogleDriveConfig {
             }
         };
         
-        return new Drive.Builder(httpTransport, JSON_FACTORY, requestInitializer)
+        return new Drive.Builder(driveHttpTransport, JSON_FACTORY, requestInitializer)
                 .setApplicationName(APPLICATION_NAME)
+                .setRootUrl(rootUrl)
                 .build();
     }
     
@@ -0,0 +1,74 @@
+package com.example.blog.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/*
+ * Module beans are picked up by Spring Boot's ObjectMapper, so the MVC converter and WebClient share them.
+ * Blackbird replaces reflective getter calls with generated lambdas; list pages of
+ * PostSummaryDto / ImageDto / ClipDto / VideoDto spend most of their serialization time there.
+ *
+ * Binary formats for bulk consumers (offline gallery sync in the mobile app), selected by the Accept header:
+ *   application/x-jackson-smile - field names and short repeated values (ethnic, type, ...) are back-references
+ *   application/cbor            - plain CBOR, or with the stringref extension when api.binary.cbor-stringref=true
+ * JSON stays the default for every other client.
+ * The two converters are beans so that Boot's HttpMessageConverters puts them in place of the MVC defaults of the
+ * same class (which would otherwise win and skip both the factory features and the spring.jackson.* settings).
+ */
+@Configuration
+public class JacksonConfig {
+
+    private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+    private final boolean cborStringRefs;
+
+    public JacksonConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder,
+                         @Value("${api.binary.cbor-stringref:false}") boolean cborStringRefs) {
+        this.objectMapperBuilder = objectMapperBuilder;
+        this.cborStringRefs = cborStringRefs;
+    }
+
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    // the defaults these replace come after the JSON converter, so Accept: */* still negotiates to JSON
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        return new MappingJackson2SmileHttpMessageConverter(objectMapperBuilder.getObject().factory(smileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        return new MappingJackson2CborHttpMessageConverter(
+                objectMapperBuilder.getObject().factory(cborFactory(cborStringRefs)).build());
+    }
+
+    public static SmileFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+
+    public static CBORFactory cborFactory(boolean stringRefs) {
+        CBORFactory factory = new CBORFactory();
+        if (stringRefs) {
+            // tags 256/25: each repeated string (ethnic, type, ...) is written once; needs a stringref-aware client
+            factory.enable(CBORGenerator.Feature.STRINGREF);
+        }
+        return factory;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.blog.config;
+
+import com.example.blog.model.Clip;
+import com.example.blog.model.Image;
+import com.example.blog.model.Post;
+import com.example.blog.model.User;
+import com.example.blog.model.You2beVideo;
+import com.mongodb.ExplainVerbosity;
+import com.mongodb.MongoException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/*
+ * Startup index maintenance (auto-index-creation is off, so declared indexes are only created here):
+ *  1. creates the @Indexed / @CompoundIndex declarations of the entities,
+ *  2. drops indexes that earlier versions declared but no query uses,
+ *  3. explains every registered query shape and warns when the winning plan scans the collection (COLLSCAN)
+ *     or sorts in memory (SORT), i.e. when a repository query has no supporting index.
+ * Add a QueryShape below together with any new repository query.
+ */
+@Component
+@RequiredArgsConstructor
+@Log4j2
+@ConditionalOnProperty(name = "mongo.index-advisor.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoIndexAdvisor {
+
+    private static final List<Class<?>> ENTITIES = List.of(Post.class, Image.class, Clip.class, You2beVideo.class, User.class);
+    private static final Map<String, List<String>> RETIRED_INDEXES = Map.of(
+            // single-field indexes on the HTML body and titles, and the compound index without createdAt
+            "posts", List.of("content", "title", "titleNoAccent", "category_lang_enable_idx"));
+    private static final Set<String> WARNING_STAGES = Set.of("COLLSCAN", "SORT");
+    private static final int EXPLAIN_LIMIT = 20;
+
+    private final MongoTemplate mongoTemplate;
+
+    private static final class QueryShape {
+        private final String name;
+        private final String collection;
+        private final Document filter;
+        private final Document sort;
+
+        private QueryShape(String name, String collection, Document filter, Document sort) {
+            this.name = name;
+            this.collection = collection;
+            this.filter = filter;
+            this.sort = sort;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            ensureDeclaredIndexes();
+            dropRetiredIndexes();
+            explainQueryShapes();
+        } catch (RuntimeException e) {
+            log.error("Index check failed; it will be retried on next startup", e);
+        }
+    }
+
+    private void ensureDeclaredIndexes() {
+        IndexResolver resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        for (Class<?> type : ENTITIES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(type);
+            for (IndexDefinition index : resolver.resolveIndexFor(type)) {
+                try {
+                    indexOps.ensureIndex(index);
+                } catch (RuntimeException e) {
+                    // typically the same keys already indexed under another name
+                    log.warn("Cannot create index {} on {}: {}", index.getIndexKeys(), type.getSimpleName(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void dropRetiredIndexes() {
+        for (Map.Entry<String, List<String>> retired : RETIRED_INDEXES.entrySet()) {
+            IndexOperations indexOps = mongoTemplate.indexOps(retired.getKey());
+            Set<String> existing = indexOps.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+            for (String name : retired.getValue()) {
+                if (existing.contains(name)) {
+                    indexOps.dropIndex(name);
+                    log.info("Dropped unused index {} on {}", name, retired.getKey());
+                }
+            }
+        }
+    }
+
+    private void explainQueryShapes() {
+        int unsupported = 0;
+        List<QueryShape> shapes = queryShapes();
+        for (QueryShape shape : shapes) {
+            try {
+                Document explain = mongoTemplate.getCollection(shape.collection)
+                        .find(shape.filter)
+                        .sort(shape.sort)
+                        .limit(EXPLAIN_LIMIT)
+                        .explain(ExplainVerbosity.QUERY_PLANNER);
+                Object winningPlan = explain.get("queryPlanner", new Document()).get("winningPlan");
+                Set<String> stages = new LinkedHashSet<>();
+                collectStages(winningPlan, stages);
+                stages.retainAll(WARNING_STAGES);
+                if (!stages.isEmpty()) {
+                    unsupported++;
+                    log.warn("Query {} on {} has no supporting index: winning plan uses {} (filter {}, sort {})",
+                            shape.name, shape.collection, stages, shape.filter.toJson(), shape.sort.toJson());
+                }
+            } catch (MongoException e) {
+                log.warn("Cannot explain query {} on {}: {}", shape.name, shape.collection, e.getMessage());
+            }
+        }
+        log.info("Index advisor checked {} query shapes, {} without a supporting index", shapes.size(), unsupported);
+    }
+
+    private static void collectStages(Object node, Set<String> stages) {
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.values().forEach(value -> collectStages(value, stages));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    /*
+     * Filters and sorts as the repositories and services send them (enum values are stored by name)
+     */
+    private static List<QueryShape> queryShapes() {
+        Document newestFirst = new Document("createdAt", -1);
+        Document noSort = new Document();
+        return List.of(
+                new QueryShape("ImageRepository.findAllOrderByCreatedAtDesc", "images", new Document(), newestFirst),
+                new QueryShape("ImageRepository.findByEthnicOrderByCreatedAtDesc", "images",
+                        new Document("ethnic", "EDE"), newestFirst),
+                new QueryShape("ImageRepository.findByType", "images", new Document("type", "PHOTO_360"), noSort),
+                new QueryShape("ImageRepository.findFirstByContentHashAndEthnic", "images",
+                        new Document("contentHash", "00000000000000000000000000000000").append("ethnic", "EDE"), noSort),
+                new QueryShape("GgDriveServiceImpl.syncFolder (stale images)", "images",
+                        new Document("ethnic", "EDE").append("syncedAt", new Document("$lt", new Date())), noSort),
+                new QueryShape("ClipRepository.findByEthnic", "clips", new Document("ethnic", "EDE"), noSort),
+                new QueryShape("ClipRepository.findAll (catalog)", "clips", new Document(), newestFirst),
+                new QueryShape("VideoRepository.findByEthnic", "videos", new Document("ethnic", "EDE"), noSort),
+                new QueryShape("VideoRepository.findAll (catalog)", "videos", new Document(), newestFirst),
+                new QueryShape("UserServiceImpl.getList", "users",
+                        new Document("roles", new Document("$in", List.of("MANAGER"))).append("enabled", true),
+                        new Document("username", -1)),
+                new QueryShape("PostServiceImpl.getList", "posts", new Document("enable", true), newestFirst),
+                new QueryShape("PostServiceImpl.getList (language)", "posts",
+                        new Document("enable", true).append("language", "en"), newestFirst),
+                new QueryShape("PostServiceImpl.getList (category, language)", "posts",
+                        new Document("enable", true).append("category", "EDE").append("language", "en"), newestFirst),
+                new QueryShape("PostServiceImpl.getNews", "posts",
+                        new Document("category", new Document("$in", List.of("NEWS", "OTHER")))
+                                .append("language", "en").append("enable", true), noSort),
+                new QueryShape("PostRepository.findFirstByCategoryAndLanguageAndEnableTrue", "posts",
+                        new Document("category", "HOME").append("language", "en").append("enable", true), noSort),
+                new QueryShape("PostRepository.deleteAllByEnableFalse", "posts", new Document("enable", false), noSort)
+        );
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.blog.config;
+
+import com.example.blog.controller.ReactiveMediaProxyHandler;
+import com.example.blog.metrics.AppMetrics;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.ClipFastStartService;
+import com.google.api.client.auth.oauth2.Credential;
+
+import io.netty.channel.ChannelOption;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.ServletRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ServletHttpHandlerAdapter;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+
+/*
+ * Serves /api/ggdrive/proxy/* through a WebFlux handler mounted as its own servlet.
+ * ServletHttpHandlerAdapter uses non-blocking Servlet I/O, so a stream only occupies a Tomcat thread
+ * while bytes are actually moving; Drive is read by Reactor Netty event loops.
+ * The servlet mapping takes precedence over the DispatcherServlet, keeping the URL stored in Image.url / Clip.url.
+ */
+@Configuration
+@ConditionalOnProperty(name = "media.proxy.reactive", havingValue = "true", matchIfMissing = true)
+public class ReactiveMediaProxyConfig {
+
+    private static final String DRIVE_API_PATH = "drive/v3/";
+
+    @Value("${gdrive.root-url:https://www.googleapis.com/}")
+    private String rootUrl;
+
+    @Value("${gdrive.connection-timeout:30000}")
+    private int connectionTimeout;
+
+    @Value("${gdrive.read-timeout:300000}")
+    private int readTimeout;
+
+    @Bean
+    WebClient driveWebClient(WebClient.Builder builder) {
+        HttpClient httpClient = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectionTimeout)
+                .responseTimeout(Duration.ofMillis(readTimeout));
+        return builder
+                .baseUrl((rootUrl.endsWith("/") ? rootUrl : rootUrl + "/") + DRIVE_API_PATH)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    @Bean
+    ServletRegistrationBean<ServletHttpHandlerAdapter> reactiveMediaProxyServlet(WebClient driveWebClient,
+                                                                                 Credential driveCredential,
+                                                                                 MediaUrlSigner mediaUrlSigner,
+                                                                                 AppMetrics appMetrics,
+                                                                                 ClipFastStartService clipFastStartService) {
+        ReactiveMediaProxyHandler handler = new ReactiveMediaProxyHandler(
+                driveWebClient, driveCredential, mediaUrlSigner, appMetrics, clipFastStartService);
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(
+                RouterFunctions.route(GET("/drive"), handler::proxyDriveFile)
+                        .andRoute(GET("/thumbnail"), handler::proxyThumbnail));
+
+        ServletRegistrationBean<ServletHttpHandlerAdapter> registration =
+                new ServletRegistrationBean<>(new ServletHttpHandlerAdapter(httpHandler), "/api/ggdrive/proxy/*");
+        registration.setName("reactiveMediaProxy");
+        registration.setAsyncSupported(true);
+        registration.setLoadOnStartup(1);
+        return registration;
+    }
+}
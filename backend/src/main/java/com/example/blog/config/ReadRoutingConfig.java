@@ -0,0 +1,113 @@
+package com.example.blog.config;
+
+import com.example.blog.repository.SecondaryRead;
+import com.mongodb.ReadPreference;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Sends @SecondaryRead methods (public gallery and post listings) to secondaries, keeping writes, admin flows
+ * and everything unannotated on the primary. The advisor is infrastructure-role so the auto-proxy creator
+ * registered by @EnableCaching applies it to repository proxies and services alike.
+ * On a standalone server (development) read preferences are ignored, so this is a no-op there.
+ */
+@Configuration
+@Log4j2
+public class ReadRoutingConfig {
+
+    /* MongoDB's lower bound for maxStalenessSeconds */
+    private static final int MIN_MAX_STALENESS_SECONDS = 90;
+
+    @Bean
+    public MongoTemplate mongoTemplate(MongoDatabaseFactory mongoDatabaseFactory, MongoConverter mongoConverter) {
+        return new ReadRoutingMongoTemplate(mongoDatabaseFactory, mongoConverter);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor secondaryReadAdvisor(Environment environment) {
+        boolean enabled = environment.getProperty("mongo.read.secondary.enabled", Boolean.class, true);
+        int defaultSeconds = environment.getProperty("mongo.read.secondary.max-staleness-seconds", Integer.class, 120);
+        Map<Method, Optional<ReadPreference>> preferences = new ConcurrentHashMap<>();
+
+        MethodInterceptor interceptor = (MethodInvocation invocation) -> {
+            ReadPreference readPreference = enabled && !isSignedIn()
+                    ? preferences.computeIfAbsent(invocation.getMethod(),
+                            method -> readPreference(environment, method, defaultSeconds)).orElse(null)
+                    : null;
+            if (readPreference == null) {
+                return invocation.proceed();
+            }
+            ReadPreference previous = ReadRoutingMongoTemplate.route(readPreference);
+            try {
+                return invocation.proceed();
+            } finally {
+                ReadRoutingMongoTemplate.restore(previous);
+            }
+        };
+
+        return new StaticMethodMatcherPointcutAdvisor(interceptor) {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass) {
+                return annotation(AopUtils.getMostSpecificMethod(method, targetClass)) != null
+                        || annotation(method) != null;
+            }
+        };
+    }
+
+    private static SecondaryRead annotation(Method method) {
+        return AnnotatedElementUtils.findMergedAnnotation(method, SecondaryRead.class);
+    }
+
+    private static Optional<ReadPreference> readPreference(Environment environment, Method method, int defaultSeconds) {
+        SecondaryRead secondaryRead = annotation(method);
+        if (secondaryRead == null) {
+            return Optional.empty();
+        }
+        String key = "mongo.read.secondary.methods." + method.getDeclaringClass().getSimpleName() + "." + method.getName();
+        int seconds = environment.getProperty(key, Integer.class,
+                secondaryRead.maxStalenessSeconds() >= 0 ? secondaryRead.maxStalenessSeconds() : defaultSeconds);
+        if (seconds <= 0) {
+            return Optional.empty();
+        }
+        if (seconds < MIN_MAX_STALENESS_SECONDS) {
+            log.warn("{} asks for maxStalenessSeconds={}, raised to the MongoDB minimum of {}",
+                    key, seconds, MIN_MAX_STALENESS_SECONDS);
+            seconds = MIN_MAX_STALENESS_SECONDS;
+        }
+        return Optional.of(ReadPreference.secondaryPreferred(seconds, TimeUnit.SECONDS));
+    }
+
+    /*
+     * Editors read their own writes: anything done for an authenticated user stays on the primary
+     */
+    private static boolean isSignedIn() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+    }
+}
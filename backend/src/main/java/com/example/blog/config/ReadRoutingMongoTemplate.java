@@ -0,0 +1,46 @@
+package com.example.blog.config;
+
+import com.mongodb.ReadPreference;
+import com.mongodb.client.MongoCollection;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/*
+ * MongoTemplate that applies the read preference of the enclosing @SecondaryRead call to every collection
+ * it touches; outside such a call (and for all writes) it behaves like the default template
+ */
+public class ReadRoutingMongoTemplate extends MongoTemplate {
+
+    private static final ThreadLocal<ReadPreference> CURRENT = new ThreadLocal<>();
+
+    public ReadRoutingMongoTemplate(MongoDatabaseFactory mongoDbFactory, MongoConverter mongoConverter) {
+        super(mongoDbFactory, mongoConverter);
+    }
+
+    /*
+     * Read preference for the calling thread until the returned value is passed to restore()
+     */
+    static ReadPreference route(ReadPreference readPreference) {
+        ReadPreference previous = CURRENT.get();
+        CURRENT.set(readPreference);
+        return previous;
+    }
+
+    static void restore(ReadPreference previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    protected MongoCollection<Document> prepareCollection(MongoCollection<Document> collection) {
+        MongoCollection<Document> prepared = super.prepareCollection(collection);
+        ReadPreference routed = CURRENT.get();
+        return routed != null ? prepared.withReadPreference(routed) : prepared;
+    }
+}
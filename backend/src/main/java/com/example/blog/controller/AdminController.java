@@ -1,6 +1,7 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.UserDto;
+import com.example.blog.security.PasswordHashingExecutor;
 import com.example.blog.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -13,12 +14,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/admin/users")
 @PreAuthorize("hasRole('ADMIN')")
 @RequiredArgsConstructor
 public class AdminController {
     private final UserService userService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @GetMapping
     public Page<UserDto> list(@RequestParam(defaultValue = "0") int page,
@@ -36,13 +40,14 @@ public class AdminController {
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
-    public UserDto createManager(@Valid @RequestBody UserDto req) {
-        return userService.createManager(req);
+    public CompletableFuture<UserDto> createManager(@Valid @RequestBody UserDto req) {
+        // BCrypt runs on the hashing pool, like login
+        return passwordHashingExecutor.supplyForRequest(() -> userService.createManager(req));
     }
 
     @PutMapping("/{id}")
-    public UserDto updateManager(@PathVariable String id, @RequestBody UserDto req) {
-        return userService.updateManager(id, req);
+    public CompletableFuture<UserDto> updateManager(@PathVariable String id, @RequestBody UserDto req) {
+        return passwordHashingExecutor.supplyForRequest(() -> userService.updateManager(id, req));
     }
 
     @DeleteMapping("/{id}")
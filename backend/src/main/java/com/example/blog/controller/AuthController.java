@@ -3,18 +3,25 @@ package com.example.blog.controller;
 import com.example.blog.enums.Roles;
 import com.example.blog.model.User;
 import com.example.blog.security.JwtService;
+import com.example.blog.security.LoginAttemptService;
+import com.example.blog.security.PasswordHashingExecutor;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -23,11 +30,31 @@ public class AuthController {
     private final AuthenticationManager authManager;
     private final JwtService jwtService;
     private final PasswordEncoder encoder;
+    private final LoginAttemptService loginAttemptService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
+    /*
+     * BCrypt verification runs on the bounded hashing pool; the servlet thread is released while it waits
+     */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest req) {
-        Authentication auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
-        SecurityContextHolder.getContext().setAuthentication(auth);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest req, HttpServletRequest request) {
+        // the client address, not the proxy's, once server.forward-headers-strategy=native applies X-Forwarded-For
+        String clientIp = request.getRemoteAddr();
+        if (loginAttemptService.isBlocked(clientIp, req.getUsername())) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many failed login attempts, try again later");
+        }
+        return passwordHashingExecutor.supplyForRequest(() -> authenticate(req, clientIp));
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest req, String clientIp) {
+        Authentication auth;
+        try {
+            auth = authManager.authenticate(new UsernamePasswordAuthenticationToken(req.getUsername(), req.getPassword()));
+        } catch (AuthenticationException e) {
+            loginAttemptService.loginFailed(clientIp, req.getUsername());
+            throw e;
+        }
+        loginAttemptService.loginSucceeded(clientIp, req.getUsername());
         var user = (User) auth.getPrincipal();
         String token = jwtService.generate(user.getUsername(), user.getRoles().stream().toList());
         return ResponseEntity.ok(new LoginResponse(user.getUsername(), user.getRoles().stream().toList(), token));
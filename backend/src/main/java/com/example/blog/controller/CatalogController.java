@@ -0,0 +1,74 @@
+package com.example.blog.controller;
+
+import com.example.blog.service.CatalogService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/*
+ * Offline gallery sync: GET /api/catalog once, then GET /api/catalog/delta?since=<version> with If-None-Match.
+ * Bodies are the pre-gzipped buffers of CatalogService, sent as-is (Content-Encoding: gzip) to gzip-capable clients.
+ */
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+public class CatalogController {
+
+    private final CatalogService catalogService;
+
+    @Value("${catalog.max-age-seconds:60}")
+    private long maxAgeSeconds;
+
+    @GetMapping
+    public ResponseEntity<Resource> getManifest(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        return serve(catalogService.getManifest(), acceptEncoding);
+    }
+
+    /*
+     * 410 when since is older than the retained history (or from another instance): fetch the full manifest instead
+     */
+    @GetMapping("delta")
+    public ResponseEntity<Resource> getDelta(@RequestParam long since,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException {
+        CatalogService.Buffer delta = catalogService.getDelta(since);
+        if (delta == null) {
+            throw new ResponseStatusException(HttpStatus.GONE, "Catalog version " + since + " is no longer available");
+        }
+        return serve(delta, acceptEncoding);
+    }
+
+    /* 304 on a matching If-None-Match is handled by Spring from the ETag header */
+    private ResponseEntity<Resource> serve(CatalogService.Buffer buffer, String acceptEncoding) throws IOException {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(buffer.getEtag())
+                .cacheControl(CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new ByteArrayResource(buffer.getGzip()));
+        }
+        return response.body(new InputStreamResource(new GZIPInputStream(new ByteArrayInputStream(buffer.getGzip()))));
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.blog.controller;
+
+import com.example.blog.service.ChangeFeedBroadcaster;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+public class ChangeFeedController {
+
+    private final ChangeFeedBroadcaster changeFeedBroadcaster;
+
+    /*
+     * Server-Sent Events: one event per write (image.added, post.updated, sync.completed, ...) with a JSON ChangeEvent
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(HttpServletResponse response) {
+        // nginx would otherwise buffer the stream
+        response.setHeader("X-Accel-Buffering", "no");
+        return changeFeedBroadcaster.subscribe();
+    }
+}
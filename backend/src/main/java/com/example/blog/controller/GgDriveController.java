@@ -3,13 +3,21 @@ package com.example.blog.controller;
 import com.example.blog.dto.ClipDto;
 import com.example.blog.dto.ImageDto;
 import com.example.blog.enums.Ethnic;
+import com.example.blog.metrics.AppMetrics;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.ClipFastStartService;
+import com.example.blog.service.DriveRateLimiter;
 import com.example.blog.service.GgDriveService;
+import com.example.blog.util.MediaTypeUtil;
 
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,6 +28,7 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 @RestController
 @RequestMapping("/api/ggdrive")
@@ -27,6 +36,10 @@ import java.io.InputStream;
 public class GgDriveController {
 
     private final GgDriveService ggDriveService;
+    private final MediaUrlSigner mediaUrlSigner;
+    private final AppMetrics appMetrics;
+    private final ClipFastStartService clipFastStartService;
+    private final DriveRateLimiter driveRateLimiter;
 
     @GetMapping("3d-images")
     public ResponseEntity<Page<ImageDto>> get3dImages(@RequestParam(defaultValue = "0") int page,
@@ -57,25 +70,61 @@ public class GgDriveController {
         return ResponseEntity.ok(ggDriveService.getListVideoMp4(PageRequest.of(Math.max(page, 0), Math.min(size, 100))));
     }
 
+    /*
+     * Blocking proxy; only reached when media.proxy.reactive=false, otherwise
+     * ReactiveMediaProxyConfig serves this path without holding a servlet thread
+     */
     @GetMapping("/proxy/drive")
     @CrossOrigin(origins = "*")
-    public ResponseEntity<InputStreamResource> proxyDriveFile(@RequestParam String id, 
-                                                            @RequestParam(required = false) String name) throws IOException {
-        InputStream inputStream = ggDriveService.getFileContent(id);
-        InputStreamResource resource = new InputStreamResource(inputStream);
-        // Determine content type based on file extension or name
-        MediaType contentType = MediaType.APPLICATION_OCTET_STREAM;
-        if (name.toLowerCase().endsWith(".jpg") || name.toLowerCase().endsWith(".jpeg")) {
-            contentType = MediaType.IMAGE_JPEG;
-        } else if (name.toLowerCase().endsWith(".png")) {
-            contentType = MediaType.IMAGE_PNG;
-        } else if (name.toLowerCase().endsWith(".glb")) {
-            contentType = MediaType.parseMediaType("model/gltf-binary");
-        } else if (name.toLowerCase().endsWith(".mp4")) {
-            contentType = MediaType.parseMediaType("video/mp4");
+    public ResponseEntity<Resource> proxyDriveFile(@RequestParam String id, 
+                                                            @RequestParam(required = false) String name,
+                                                            @RequestParam(required = false) Long exp,
+                                                            @RequestParam(required = false) String sig) throws IOException {
+        if (mediaUrlSigner.isEnabled() && !mediaUrlSigner.verify(id, name, exp, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        MediaType contentType = MediaTypeUtil.fromFileName(name);
+        Path fastStart = MediaTypeUtil.VIDEO_MP4.equals(contentType) ? clipFastStartService.getFastStart(id) : null;
+        if (fastStart != null) {
+            // a file resource lets Spring answer Range requests (206) from the local copy
+            return ResponseEntity.ok()
+                    .contentType(contentType)
+                    .cacheControl(mediaUrlSigner.cacheControlFor(exp))
+                    .body(new FileSystemResource(fastStart));
+        }
+        InputStream inputStream;
+        try (DriveRateLimiter.Scope interactive = driveRateLimiter.interactive()) {
+            inputStream = ggDriveService.getFileContent(id);
         }
+        InputStreamResource resource = new InputStreamResource(appMetrics.countingProxyStream(inputStream));
         return ResponseEntity.ok()
                 .contentType(contentType)
+                .cacheControl(mediaUrlSigner.cacheControlFor(exp))
                 .body(resource);
     }
+
+    /*
+     * Drive thumbnail of a file, looked up fresh on each call (the stored thumbnailLink of a private file expires);
+     * like /proxy/drive, served by ReactiveMediaProxyHandler when media.proxy.reactive=true
+     */
+    @GetMapping("/proxy/thumbnail")
+    @CrossOrigin(origins = "*")
+    public ResponseEntity<Resource> proxyThumbnail(@RequestParam String id,
+                                                   @RequestParam(required = false) Long exp,
+                                                   @RequestParam(required = false) String sig) throws IOException {
+        if (mediaUrlSigner.isEnabled() && !mediaUrlSigner.verifyThumbnail(id, exp, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        InputStream thumbnail;
+        try (DriveRateLimiter.Scope interactive = driveRateLimiter.interactive()) {
+            thumbnail = ggDriveService.getThumbnailContent(id);
+        }
+        if (thumbnail == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(mediaUrlSigner.cacheControlFor(exp))
+                .body(new InputStreamResource(thumbnail));
+    }
 }
@@ -0,0 +1,70 @@
+package com.example.blog.controller;
+
+import com.example.blog.dto.ModelLodDto;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.ModelLodService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/images/{id}/lod")
+@RequiredArgsConstructor
+public class ModelLodController {
+
+    private static final MediaType MODEL_GLTF_BINARY = MediaType.parseMediaType("model/gltf-binary");
+
+    /* media.signing scope of the preview file, as "tiles" is for 360 tiles */
+    private static final String SCOPE = "model-preview";
+
+    private final ModelLodService modelLodService;
+    private final MediaUrlSigner mediaUrlSigner;
+
+    /*
+     * 404 until the preview is built (or when the model has none); the viewer then loads the full model directly.
+     * Not publicly cacheable: fullUrl and previewUrl carry signatures when media.signing is on
+     */
+    @GetMapping
+    public ResponseEntity<ModelLodDto> getLod(@PathVariable String id) {
+        ModelLodDto lod = modelLodService.getLod(id);
+        if (lod == null || lod.getPreviewUrl() == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate())
+                .body(lod.toBuilder()
+                        .previewUrl(lod.getPreviewUrl() + mediaUrlSigner.scopedQuery(SCOPE, id))
+                        .build());
+    }
+
+    @GetMapping("preview")
+    public ResponseEntity<Resource> getPreview(@PathVariable String id,
+                                               @RequestParam(required = false) Long exp,
+                                               @RequestParam(required = false) String sig) {
+        if (mediaUrlSigner.isEnabled() && !mediaUrlSigner.verifyScoped(SCOPE, id, exp, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Path file = modelLodService.getPreview(id);
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MODEL_GLTF_BINARY)
+                .cacheControl(mediaUrlSigner.cacheControlFor(exp))
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.blog.controller;
+
+import com.example.blog.dto.TileSetDto;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.PanoramaTileService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+@RestController
+@RequestMapping("/api/images/{id}/tiles")
+@RequiredArgsConstructor
+public class PanoramaTileController {
+
+    /* one media.signing signature per image covers its preview and every tile */
+    private static final String SCOPE = "tiles";
+    private static final long DESCRIPTOR_MAX_AGE_SECONDS = TimeUnit.HOURS.toSeconds(1);
+
+    private final PanoramaTileService panoramaTileService;
+    private final MediaUrlSigner mediaUrlSigner;
+
+    /*
+     * 404 until the pyramid is generated (or when the image is too small to tile); the viewer then loads the full image.
+     * The stored descriptor is unsigned; baseUrl and tileUrl get the current exp/sig here, like the proxy URLs in image DTOs.
+     */
+    @GetMapping
+    public ResponseEntity<TileSetDto> getTileSet(@PathVariable String id) {
+        TileSetDto tileSet = panoramaTileService.getTileSet(id);
+        if (tileSet == null || tileSet.getLevels().isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        long maxAge = DESCRIPTOR_MAX_AGE_SECONDS;
+        String query = mediaUrlSigner.scopedQuery(SCOPE, id);
+        if (!query.isEmpty()) {
+            /* a cached descriptor leaves the viewer at least another max-age to fetch tiles with its signature */
+            maxAge = Math.min(maxAge, Math.max(0, mediaUrlSigner.currentExpiry() - Instant.now().getEpochSecond()
+                    - DESCRIPTOR_MAX_AGE_SECONDS));
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic())
+                .body(TileSetDto.builder()
+                        .id(tileSet.getId())
+                        .tileSize(tileSet.getTileSize())
+                        .baseUrl(tileSet.getBaseUrl() + query)
+                        .tileUrl(tileSet.getTileUrl() + query)
+                        .levels(tileSet.getLevels())
+                        .build());
+    }
+
+    @GetMapping("preview")
+    public ResponseEntity<Resource> getPreview(@PathVariable String id,
+                                               @RequestParam(required = false) Long exp,
+                                               @RequestParam(required = false) String sig) {
+        if (mediaUrlSigner.isEnabled() && !mediaUrlSigner.verifyScoped(SCOPE, id, exp, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return jpeg(panoramaTileService.getPreview(id), exp);
+    }
+
+    @GetMapping("{level}/{col}/{row}")
+    public ResponseEntity<Resource> getTile(@PathVariable String id, @PathVariable int level,
+                                            @PathVariable int col, @PathVariable int row,
+                                            @RequestParam(required = false) Long exp,
+                                            @RequestParam(required = false) String sig) {
+        if (mediaUrlSigner.isEnabled() && !mediaUrlSigner.verifyScoped(SCOPE, id, exp, sig)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return jpeg(panoramaTileService.getTile(id, level, col, row), exp);
+    }
+
+    private ResponseEntity<Resource> jpeg(Path file, Long exp) {
+        if (file == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .cacheControl(mediaUrlSigner.cacheControlFor(exp))
+                .body(new FileSystemResource(file));
+    }
+}
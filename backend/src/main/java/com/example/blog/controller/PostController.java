@@ -1,6 +1,7 @@
 package com.example.blog.controller;
 
 import com.example.blog.dto.PostDto;
+import com.example.blog.dto.PostSummaryDto;
 import com.example.blog.enums.PostCategory;
 import com.example.blog.service.PostService;
 import jakarta.validation.Valid;
@@ -24,7 +25,7 @@ public class PostController {
 
     // GET /api/posts?page=0&size=10&category=ede&q=keyword&language=en
     @GetMapping
-    public Page<PostDto> list(@RequestParam(defaultValue = "0") int page,
+    public Page<PostSummaryDto> list(@RequestParam(defaultValue = "0") int page,
                            @RequestParam(defaultValue = "10") int size,
                            @RequestParam(required = false) PostCategory category,
                            @RequestParam(required = false) String q,
@@ -35,7 +36,7 @@ public class PostController {
     }
 
     @GetMapping("news")
-    public List<PostDto> getNews(@RequestParam(required = false) String lang) {
+    public List<PostSummaryDto> getNews(@RequestParam(required = false) String lang) {
         return postService.getNews(lang);
     }
 
@@ -0,0 +1,182 @@
+package com.example.blog.controller;
+
+import com.example.blog.metrics.AppMetrics;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.ClipFastStartService;
+import com.example.blog.util.MediaTypeUtil;
+import com.google.api.client.auth.oauth2.Credential;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.List;
+
+/*
+ * Non-blocking variant of GET /api/ggdrive/proxy/drive?id=...&name=...
+ * The Drive download is consumed as a DataBuffer stream and only pulled as fast as the client drains it.
+ * MP4 clips with a local fast-start copy are served from disk instead, Range requests included.
+ */
+@Log4j2
+@RequiredArgsConstructor
+public class ReactiveMediaProxyHandler {
+
+    private static final long TOKEN_REFRESH_MARGIN_SECONDS = 60;
+    private static final List<String> RELAYED_HEADERS = List.of(
+        HttpHeaders.CONTENT_LENGTH,
+        HttpHeaders.CONTENT_RANGE,
+        HttpHeaders.ACCEPT_RANGES,
+        HttpHeaders.ETAG,
+        HttpHeaders.LAST_MODIFIED
+    );
+
+    private final WebClient driveWebClient;
+    private final Credential driveCredential;
+    private final MediaUrlSigner mediaUrlSigner;
+    private final AppMetrics appMetrics;
+    private final ClipFastStartService clipFastStartService;
+
+    public Mono<ServerResponse> proxyDriveFile(ServerRequest request) {
+        String id = request.queryParam("id").orElse(null);
+        if (id == null || id.isBlank()) {
+            return ServerResponse.badRequest().build();
+        }
+        Long expiresAt = parseLong(request.queryParam("exp").orElse(null));
+        String name = request.queryParam("name").orElse(null);
+        if (mediaUrlSigner.isEnabled()
+                && !mediaUrlSigner.verify(id, name, expiresAt, request.queryParam("sig").orElse(null))) {
+            return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+        }
+        CacheControl cacheControl = mediaUrlSigner.cacheControlFor(expiresAt);
+        MediaType contentType = MediaTypeUtil.fromFileName(name);
+        String range = request.headers().firstHeader(HttpHeaders.RANGE);
+
+        Path fastStart = MediaTypeUtil.VIDEO_MP4.equals(contentType) ? clipFastStartService.getFastStart(id) : null;
+        if (fastStart != null) {
+            return ServerResponse.ok()
+                    .contentType(contentType)
+                    .cacheControl(cacheControl)
+                    .headers(headers -> headers.setAccessControlAllowOrigin("*"))
+                    .body(BodyInserters.fromResource(new FileSystemResource(fastStart)));
+        }
+        return accessToken()
+                .flatMap(token -> driveWebClient.get()
+                        .uri(uri -> uri.path("files/{id}").queryParam("alt", "media").build(id))
+                        .headers(headers -> {
+                            headers.setBearerAuth(token);
+                            if (range != null) {
+                                headers.set(HttpHeaders.RANGE, range);
+                            }
+                        })
+                        .retrieve()
+                        .toEntityFlux(DataBuffer.class))
+                .flatMap(upstream -> relay(upstream, contentType, cacheControl))
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    log.warn("Drive proxy request for file {} failed with status {}", id, e.getStatusCode());
+                    return ServerResponse.status(e.getStatusCode()).build();
+                });
+    }
+
+    /*
+     * GET /api/ggdrive/proxy/thumbnail?id=...: thumbnailLink is looked up fresh (it expires for private files)
+     * and fetched with the Drive token
+     */
+    public Mono<ServerResponse> proxyThumbnail(ServerRequest request) {
+        String id = request.queryParam("id").orElse(null);
+        if (id == null || id.isBlank()) {
+            return ServerResponse.badRequest().build();
+        }
+        Long expiresAt = parseLong(request.queryParam("exp").orElse(null));
+        if (mediaUrlSigner.isEnabled()
+                && !mediaUrlSigner.verifyThumbnail(id, expiresAt, request.queryParam("sig").orElse(null))) {
+            return ServerResponse.status(HttpStatus.FORBIDDEN).build();
+        }
+        CacheControl cacheControl = mediaUrlSigner.cacheControlFor(expiresAt);
+        return accessToken()
+                .flatMap(token -> driveWebClient.get()
+                        .uri(uri -> uri.path("files/{id}").queryParam("fields", "thumbnailLink").build(id))
+                        .headers(headers -> headers.setBearerAuth(token))
+                        .retrieve()
+                        .bodyToMono(ThumbnailLink.class)
+                        .filter(file -> file.thumbnailLink() != null)
+                        .flatMap(file -> driveWebClient.get()
+                                .uri(URI.create(file.thumbnailLink()))
+                                .headers(headers -> headers.setBearerAuth(token))
+                                .retrieve()
+                                .toEntityFlux(DataBuffer.class)))
+                .flatMap(upstream -> relay(upstream, upstream.getHeaders().getContentType() != null
+                        ? upstream.getHeaders().getContentType() : MediaType.IMAGE_JPEG, cacheControl))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.notFound().build()))
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    log.warn("Drive thumbnail request for file {} failed with status {}", id, e.getStatusCode());
+                    return ServerResponse.status(e.getStatusCode()).build();
+                });
+    }
+
+    record ThumbnailLink(String thumbnailLink) {
+    }
+
+    private Mono<ServerResponse> relay(ResponseEntity<Flux<DataBuffer>> upstream, MediaType contentType,
+                                       CacheControl cacheControl) {
+        Flux<DataBuffer> body = (upstream.getBody() != null ? upstream.getBody() : Flux.<DataBuffer>empty())
+                .doOnNext(buffer -> appMetrics.countProxyBytes(buffer.readableByteCount()));
+        return ServerResponse.status(upstream.getStatusCode())
+                .contentType(contentType)
+                .cacheControl(cacheControl)
+                .headers(headers -> {
+                    for (String name : RELAYED_HEADERS) {
+                        String value = upstream.getHeaders().getFirst(name);
+                        if (value != null) {
+                            headers.set(name, value);
+                        }
+                    }
+                    headers.setAccessControlAllowOrigin("*");
+                })
+                .body(BodyInserters.fromDataBuffers(body));
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Token refresh is a blocking call of the Google client, so it is moved off the request thread
+     */
+    private Mono<String> accessToken() {
+        String token = driveCredential.getAccessToken();
+        Long expiresIn = driveCredential.getExpiresInSeconds();
+        if (token != null && (expiresIn == null || expiresIn > TOKEN_REFRESH_MARGIN_SECONDS)) {
+            return Mono.just(token);
+        }
+        return Mono.fromCallable(() -> {
+                    driveCredential.refreshToken();
+                    return driveCredential.getAccessToken();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
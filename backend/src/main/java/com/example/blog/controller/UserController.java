@@ -3,6 +3,7 @@ package com.example.blog.controller;
 import com.example.blog.dto.ChangePasswordRequest;
 import com.example.blog.dto.UserDto;
 import com.example.blog.model.User;
+import com.example.blog.security.PasswordHashingExecutor;
 import com.example.blog.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,11 +11,14 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/users")
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
 
     @GetMapping("/profile")
     public UserDto profile(@AuthenticationPrincipal User u) {
@@ -27,8 +31,11 @@ public class UserController {
     }
 
     @PutMapping("/change-password")
-    public ResponseEntity<?> changePassword(@AuthenticationPrincipal User u, @Valid @RequestBody ChangePasswordRequest req) {
-        if (!userService.changePassword(u, req)) return ResponseEntity.status(400).body("Current password incorrect");
-        return ResponseEntity.noContent().build();
+    public CompletableFuture<ResponseEntity<?>> changePassword(@AuthenticationPrincipal User u, @Valid @RequestBody ChangePasswordRequest req) {
+        // verify + re-hash are two BCrypt rounds; they run on the hashing pool, like login
+        return passwordHashingExecutor.supplyForRequest(() -> {
+            if (!userService.changePassword(u, req)) return ResponseEntity.status(400).body("Current password incorrect");
+            return ResponseEntity.noContent().build();
+        });
     }
 }
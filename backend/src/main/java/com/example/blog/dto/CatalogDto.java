@@ -0,0 +1,33 @@
+package com.example.blog.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Builder;
+import lombok.Data;
+
+/*
+ * Full gallery manifest (since and removed unset) or the delta from version since to version:
+ * entries added or changed since then, and the ids removed per kind ("images", "clips", "videos").
+ * urlsExpireAt is set when media URLs are signed; clients refetch the full manifest before then.
+ */
+@Data @Builder
+public class CatalogDto {
+
+    private long version;
+
+    private Long since;
+
+    private Instant generatedAt;
+
+    private Long urlsExpireAt;
+
+    private List<ImageDto> images;
+
+    private List<ClipDto> clips;
+
+    private List<VideoDto> videos;
+
+    private Map<String, List<String>> removed;
+}
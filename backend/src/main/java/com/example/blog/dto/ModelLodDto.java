@@ -0,0 +1,33 @@
+package com.example.blog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Level-of-detail manifest of a GLB model: a small decimated preview to paint first and the full model
+ * streamed afterwards through the media proxy. previewUrl is null when the model could not be reduced;
+ * fullUrl is resolved (and signed) per request, the rest is stored next to the preview file.
+ */
+@Data @Builder(toBuilder = true) @NoArgsConstructor @AllArgsConstructor
+public class ModelLodDto {
+
+    private String id;
+
+    private String name;
+
+    private String driveId;
+
+    private String previewUrl;
+
+    private String fullUrl;
+
+    private long previewBytes;
+
+    private long fullBytes;
+
+    private int previewTriangles;
+
+    private int fullTriangles;
+}
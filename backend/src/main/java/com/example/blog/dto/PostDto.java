@@ -24,6 +24,10 @@ public class PostDto {
     @NotBlank
     private String content; // HTML
 
+    private String excerpt; // plain text, derived on write
+    private String coverImageUrl;
+    private Integer contentLength;
+
     private Boolean enable;
 
     private String createdUser;
@@ -0,0 +1,30 @@
+package com.example.blog.dto;
+
+import java.time.Instant;
+
+import com.example.blog.enums.PostCategory;
+
+import lombok.Builder;
+import lombok.Data;
+
+/*
+ * List/index row of a post: everything but the HTML body, which only GET /api/posts/{id} returns
+ */
+@Data @Builder
+public class PostSummaryDto {
+    private String id;
+    private String title;
+    private String language;
+    private PostCategory category;
+
+    private String excerpt; // plain text
+    private String coverImageUrl; // first <img> of the content
+    private Integer contentLength;
+
+    private Boolean enable;
+
+    private String createdUser;
+    private String updatedUser;
+
+    private Instant createdAt;
+}
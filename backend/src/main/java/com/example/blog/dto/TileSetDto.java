@@ -0,0 +1,34 @@
+package com.example.blog.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/*
+ * Equirectangular tile pyramid of a 360 image, lowest level first, in the shape
+ * Photo Sphere Viewer's EquirectangularTilesAdapter expects (levels of width/cols/rows).
+ * tileUrl is a template with {level}, {col} and {row}; baseUrl is the whole panorama at the lowest level.
+ */
+@Data @Builder @NoArgsConstructor @AllArgsConstructor
+public class TileSetDto {
+
+    private String id;
+
+    private int tileSize;
+
+    private String baseUrl;
+
+    private String tileUrl;
+
+    private List<Level> levels;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Level {
+        private int width;
+        private int cols;
+        private int rows;
+    }
+}
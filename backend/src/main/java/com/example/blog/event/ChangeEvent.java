@@ -0,0 +1,83 @@
+package com.example.blog.event;
+
+import com.example.blog.enums.Ethnic;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/*
+ * Notification of a write: listeners in the application (derived media cleanup, ...) get every id, except for
+ * a mass sync removal that only carries its count (ids null);
+ * the copy pushed to /api/changes subscribers (see compact()) leaves ids out when a bulk write touched more than
+ * MAX_IDS documents, and clients then refetch what they show.
+ */
+@Getter
+@ToString
+public class ChangeEvent {
+
+    public static final String IMAGE_ADDED = "image.added";
+    public static final String IMAGE_UPDATED = "image.updated";
+    public static final String IMAGE_REMOVED = "image.removed";
+    public static final String CLIP_ADDED = "clip.added";
+    public static final String CLIP_REMOVED = "clip.removed";
+    public static final String POST_CREATED = "post.created";
+    public static final String POST_UPDATED = "post.updated";
+    public static final String POST_DELETED = "post.deleted";
+    public static final String SYNC_COMPLETED = "sync.completed";
+
+    private static final int MAX_IDS = 100;
+
+    private final String type;
+    private final List<String> ids;
+    private final int count;
+    private final Ethnic ethnic;
+    /* sync.completed only: "images", "clips" or "videos" */
+    private final String scope;
+    private final Instant at;
+
+    private ChangeEvent(String type, Collection<String> ids, Ethnic ethnic, String scope) {
+        this(type, ids == null ? null : List.copyOf(ids), ids == null ? 0 : ids.size(), ethnic, scope, Instant.now());
+    }
+
+    private ChangeEvent(String type, List<String> ids, int count, Ethnic ethnic, String scope, Instant at) {
+        this.type = type;
+        this.ids = ids;
+        this.count = count;
+        this.ethnic = ethnic;
+        this.scope = scope;
+        this.at = at;
+    }
+
+    /**
+     * The SSE payload: the same event without ids when there are more than MAX_IDS of them (count is kept)
+     */
+    public ChangeEvent compact() {
+        if (ids == null || ids.size() <= MAX_IDS) {
+            return this;
+        }
+        return new ChangeEvent(type, null, count, ethnic, scope, at);
+    }
+
+    public static ChangeEvent of(String type, String id) {
+        return new ChangeEvent(type, List.of(id), null, null);
+    }
+
+    public static ChangeEvent of(String type, Collection<String> ids, Ethnic ethnic) {
+        return new ChangeEvent(type, ids, ethnic, null);
+    }
+
+    /*
+     * A bulk write known only by its count; listeners that need ids skip it
+     */
+    public static ChangeEvent of(String type, long count, Ethnic ethnic) {
+        return new ChangeEvent(type, null, (int) Math.min(count, Integer.MAX_VALUE), ethnic, null, Instant.now());
+    }
+
+    public static ChangeEvent syncCompleted(SyncCompletedEvent event) {
+        return new ChangeEvent(SYNC_COMPLETED, null, event.getEthnic(), event.getKind());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.blog.event;
+
+import com.example.blog.enums.Ethnic;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/*
+ * Published after a Drive / YouTube sync run has written its documents.
+ * kind is "images", "clips" or "videos" (same values as the sync.duration metric); ethnic is null for a full run.
+ */
+@Getter
+@RequiredArgsConstructor
+@ToString
+public class SyncCompletedEvent {
+
+    public static final String IMAGES = "images";
+    public static final String CLIPS = "clips";
+    public static final String VIDEOS = "videos";
+
+    private final String kind;
+    private final Ethnic ethnic;
+}
@@ -2,7 +2,7 @@ package com.example.blog.mapper;
 
 import com.example.blog.dto.ClipDto;
 import com.example.blog.model.Clip;
-import com.example.blog.service.impl.GgDriveServiceImpl;
+import com.example.blog.service.MediaUrlResolver;
 
 import lombok.RequiredArgsConstructor;
 
@@ -12,19 +12,20 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class ClipMapper {
 
-    private final GgDriveServiceImpl driveService;
+    private final MediaUrlResolver mediaUrlResolver;
 
     public ClipDto toDto(Clip clip) {
         if (clip == null) {
             return null;
         }
 
+        String url = mediaUrlResolver.resolve(clip.getDriveId(), clip.getName(), clip.getUrl());
         return ClipDto.builder()
                 .id(clip.getId())
                 .name(clip.getName())
                 .ethnic(clip.getEthnic())
-                .url(clip.getUrl())
-                .thumbnailUrl(clip.getThumbnailUrl() != null ? clip.getThumbnailUrl() : driveService.convertToThumbnailUrl(clip.getUrl()))
+                .url(url)
+                .thumbnailUrl(mediaUrlResolver.resolveThumbnail(clip.getDriveId(), clip.getUrl(), clip.getThumbnailUrl()))
                 .note(clip.getNote())
                 .createdAt(clip.getCreatedAt())
                 .build();
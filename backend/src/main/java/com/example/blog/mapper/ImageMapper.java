@@ -2,7 +2,7 @@ package com.example.blog.mapper;
 
 import com.example.blog.dto.ImageDto;
 import com.example.blog.model.Image;
-import com.example.blog.service.impl.GgDriveServiceImpl;
+import com.example.blog.service.MediaUrlResolver;
 
 import lombok.RequiredArgsConstructor;
 
@@ -12,19 +12,20 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class ImageMapper {
 
-    private final GgDriveServiceImpl driveService;
+    private final MediaUrlResolver mediaUrlResolver;
 
     public ImageDto toDto(Image image) {
         if (image == null) {
             return null;
         }
 
+        String url = mediaUrlResolver.resolve(image.getDriveId(), image.getName(), image.getUrl());
         return ImageDto.builder()
                 .id(image.getId())
                 .name(image.getName())
                 .ethnic(image.getEthnic())
-                .url(image.getUrl())
-                .thumbnailUrl(image.getThumbnailUrl() != null ? image.getThumbnailUrl() : driveService.convertToThumbnailUrl(image.getUrl()))
+                .url(url)
+                .thumbnailUrl(mediaUrlResolver.resolveThumbnail(image.getDriveId(), image.getUrl(), image.getThumbnailUrl()))
                 .type(image.getType())
                 .note(image.getNote())
                 .createdAt(image.getCreatedAt())
@@ -40,7 +41,6 @@ public class ImageMapper {
                 .id(imageDto.getId())
                 .name(imageDto.getName())   
                 .ethnic(imageDto.getEthnic())
-                .url(imageDto.getUrl())
                 .type(imageDto.getType())
                 .note(imageDto.getNote())
                 .createdAt(imageDto.getCreatedAt())
@@ -54,7 +54,6 @@ public class ImageMapper {
 
         image.setName(imageDto.getName());
         image.setEthnic(imageDto.getEthnic());
-        image.setUrl(imageDto.getUrl());
         image.setThumbnailUrl(imageDto.getThumbnailUrl());
         image.setType(imageDto.getType());
         image.setNote(imageDto.getNote());
@@ -1,25 +1,31 @@
 package com.example.blog.mapper;
 
 import com.example.blog.dto.PostDto;
+import com.example.blog.dto.PostSummaryDto;
 import com.example.blog.model.Post;
+import com.example.blog.util.TextUtil;
 
 import org.springframework.stereotype.Component;
 
 @Component
 public class PostMapper {
 
+    private static final int EXCERPT_LENGTH = 1000; // longest snippet a list view shows
+    private static final int MAX_SEARCH_TOKENS = 2000;
+
     public Post toEntity(PostDto dto) {
         if (dto == null) {
             return null;
         }
         
-        return Post.builder()
+        Post post = Post.builder()
                 .title(dto.getTitle())
-                .titleNoAccent(Post.unaccent(dto.getTitle()))
                 .category(dto.getCategory())
                 .content(dto.getContent())
                 .language(dto.getLanguage())
                 .build();
+        applyDerivedFields(post);
+        return post;
     }
 
     public Post toEntity(PostDto dto, Post existingPost) {
@@ -28,10 +34,13 @@ public class PostMapper {
         }
         
         existingPost.setTitle(dto.getTitle());
-        existingPost.setTitleNoAccent(Post.unaccent(dto.getTitle()));
         existingPost.setLanguage(dto.getLanguage());
         existingPost.setCategory(dto.getCategory());
         existingPost.setContent(dto.getContent());
+        if (existingPost.getEnable() == null) {
+            existingPost.setEnable(true);
+        }
+        applyDerivedFields(existingPost);
         return existingPost;
     }
 
@@ -46,10 +55,46 @@ public class PostMapper {
                 .language(entity.getLanguage())
                 .category(entity.getCategory())
                 .content(entity.getContent())
+                .excerpt(entity.getExcerpt())
+                .coverImageUrl(entity.getCoverImageUrl())
+                .contentLength(entity.getContentLength())
                 .enable(entity.getEnable())
                 .createdUser(entity.getCreatedUser())
                 .updatedUser(entity.getUpdatedUser())
                 .createdAt(entity.getCreatedAt())
                 .build();
     }
+
+    public PostSummaryDto toSummaryDto(Post entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        return PostSummaryDto.builder()
+                .id(entity.getId())
+                .title(entity.getTitle())
+                .language(entity.getLanguage())
+                .category(entity.getCategory())
+                .excerpt(entity.getExcerpt())
+                .coverImageUrl(entity.getCoverImageUrl())
+                .contentLength(entity.getContentLength())
+                .enable(entity.getEnable())
+                .createdUser(entity.getCreatedUser())
+                .updatedUser(entity.getUpdatedUser())
+                .createdAt(entity.getCreatedAt())
+                .build();
+    }
+
+    /*
+     * Everything list and search reads need is computed here, once per write, instead of per row on each read
+     */
+    public void applyDerivedFields(Post post) {
+        String text = TextUtil.htmlToText(post.getContent());
+        post.setTitleNoAccent(TextUtil.foldVietnamese(post.getTitle()));
+        post.setExcerpt(TextUtil.excerpt(text, EXCERPT_LENGTH));
+        post.setCoverImageUrl(TextUtil.firstImageSrc(post.getContent()));
+        post.setContentLength(text == null ? 0 : text.length());
+        post.setSearchTokens(TextUtil.searchTokens(MAX_SEARCH_TOKENS, post.getTitle(), text));
+        post.setDerivedVersion(Post.DERIVED_FIELDS_VERSION);
+    }
 }
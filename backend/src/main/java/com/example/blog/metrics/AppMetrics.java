@@ -0,0 +1,108 @@
+package com.example.blog.metrics;
+
+import com.example.blog.enums.Ethnic;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/*
+ * Timers and counters around remote calls (Drive, YouTube), sync runs and proxied media bytes.
+ * HTTP, Mongo command, cache and executor metrics come from Spring Boot's auto-configuration.
+ */
+@Component
+public class AppMetrics {
+
+    public static final String CLIENT_DRIVE = "gdrive";
+    public static final String CLIENT_YOUTUBE = "youtube";
+
+    private final MeterRegistry meterRegistry;
+    private final Counter proxyBytes;
+
+    public AppMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.proxyBytes = Counter.builder("media.proxy.bytes")
+                .description("Bytes streamed to clients by the Drive media proxy")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @FunctionalInterface
+    public interface RemoteCall<T> {
+        T execute() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SyncTask {
+        void run() throws IOException;
+    }
+
+    public <T> T recordRemoteCall(String client, String operation, RemoteCall<T> call) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return call.execute();
+        } catch (IOException | RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("remote.calls")
+                    .description("Latency of Google Drive / YouTube API calls")
+                    .tag("client", client)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    public void recordSync(String kind, Ethnic ethnic, SyncTask task) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            task.run();
+        } catch (IOException | RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("sync.duration")
+                    .description("Duration of Drive / YouTube sync runs")
+                    .tag("kind", kind)
+                    .tag("ethnic", ethnic != null ? ethnic.name() : "none")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    public void countUploadRetry(String reason) {
+        meterRegistry.counter("gdrive.upload.retries", "reason", reason).increment();
+    }
+
+    public void countProxyBytes(long bytes) {
+        proxyBytes.increment(bytes);
+    }
+
+    public InputStream countingProxyStream(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) proxyBytes.increment();
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int off, int len) throws IOException {
+                int n = super.read(buffer, off, len);
+                if (n > 0) proxyBytes.increment(n);
+                return n;
+            }
+        };
+    }
+}
@@ -2,6 +2,10 @@ package com.example.blog.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.example.blog.enums.Ethnic;
@@ -9,14 +13,21 @@ import com.example.blog.enums.Ethnic;
 import java.time.Instant;
 
 @Document("clips")
+@CompoundIndexes({
+    @CompoundIndex(name = "ethnic_created_idx", def = "{'ethnic': 1, 'createdAt': -1}")
+})
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class Clip {
     @Id
     private String id;
     private String name;
     private Ethnic ethnic;
-    private String url;
+    private String driveId;
+    private String mimeType;
+    private String url; // legacy: absolute proxy URL stored before driveId, see MediaUrlResolver
     private String thumbnailUrl;
     private String note;
+    @Indexed(direction = IndexDirection.DESCENDING)
     private Instant createdAt;
+    private Instant syncedAt; // Mongo server time of the last Drive sync that listed the file, see GgDriveServiceImpl.syncFolder
 }
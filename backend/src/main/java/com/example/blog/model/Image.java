@@ -2,6 +2,10 @@ package com.example.blog.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.example.blog.enums.Ethnic;
@@ -10,15 +14,25 @@ import com.example.blog.enums.ImageType;
 import java.time.Instant;
 
 @Document("images")
+@CompoundIndexes({
+    @CompoundIndex(name = "ethnic_created_idx", def = "{'ethnic': 1, 'createdAt': -1}")
+})
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class Image {
     @Id
     private String id;
     private String name;
     private Ethnic ethnic;
-    private String url;
+    private String driveId;
+    private String mimeType;
+    private String url; // legacy: absolute proxy URL stored before driveId, see MediaUrlResolver
     private String thumbnailUrl;
+    @Indexed
     private ImageType type;
     private String note;
+    @Indexed(direction = IndexDirection.DESCENDING)
     private Instant createdAt;
+    @Indexed(sparse = true)
+    private String contentHash; // MD5 (hex) of the file bytes, same value as Drive's md5Checksum
+    private Instant syncedAt; // Mongo server time of the last Drive sync that listed the file, see GgDriveServiceImpl.syncFolder
 }
@@ -9,44 +9,48 @@ import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.example.blog.enums.PostCategory;
 
-import java.text.Normalizer;
 import java.time.Instant;
+import java.util.List;
 
 @Document("posts")
 @CompoundIndexes({
-    @CompoundIndex(name = "category_lang_enable_idx", def = "{'category': 1, 'language': 1, 'enable': 1}")
+    // listings filter on enable (+ language, + category) and sort newest first; see PostServiceImpl.getList
+    @CompoundIndex(name = "category_lang_enable_created_idx", def = "{'category': 1, 'language': 1, 'enable': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "lang_enable_created_idx", def = "{'language': 1, 'enable': 1, 'createdAt': -1}"),
+    @CompoundIndex(name = "enable_created_idx", def = "{'enable': 1, 'createdAt': -1}")
 })
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class Post {
+
+    /* Bump when the derivation in PostMapper.applyDerivedFields changes; older documents get re-derived on startup */
+    public static final int DERIVED_FIELDS_VERSION = 2;
+
     @Id
     private String id;
     
-    @Indexed
     private String title;
 
-    @Indexed
     private String titleNoAccent;
 
     private String language;
     private PostCategory category;
 
-    @Indexed
     private String content; // HTML from CKEditor
 
-    private Boolean enable;
+    // derived from title/content on every write, see PostMapper.applyDerivedFields
+    private String excerpt;
+    private String coverImageUrl;
+    @Indexed
+    private List<String> searchTokens;
+    private Integer contentLength;
+    private Integer derivedVersion;
+
+    // never null: readers filter on enable = true; see DerivedFieldsBackfill for documents that predate this
+    @Builder.Default
+    private Boolean enable = true;
     
     private String createdUser;
     private String updatedUser;
     private Instant createdAt;
     private Instant updatedAt;
-
-    public static String unaccent(String s) {
-        if (s == null) return null;
-        String normalized = Normalizer.normalize(s, Normalizer.Form.NFD);
-        // Xóa toàn bộ dấu (combining marks)
-        String noMarks = normalized.replaceAll("\\p{M}+", "");
-        // Chuẩn hóa thêm các ký tự riêng (đ/Đ)
-        noMarks = noMarks.replace('đ', 'd').replace('Đ', 'D');
-        return noMarks.toLowerCase();
-    }
 }
@@ -2,6 +2,7 @@ package com.example.blog.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,6 +15,8 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Document("users")
+// admin user list: roles + enabled, sorted by username; see UserServiceImpl.getList
+@CompoundIndex(name = "roles_enabled_username_idx", def = "{'roles': 1, 'enabled': 1, 'username': 1}")
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class User implements UserDetails {
     @Id
@@ -32,6 +35,7 @@ public class User implements UserDetails {
     @Builder.Default
     private Set<Roles> roles = new HashSet<>();
 
+    // never null: the admin list filters on enabled = true; see DerivedFieldsBackfill for documents that predate this
     @Builder.Default
     private Boolean enabled = true;
 
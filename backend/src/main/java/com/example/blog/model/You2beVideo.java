@@ -2,6 +2,10 @@ package com.example.blog.model;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.IndexDirection;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import com.example.blog.enums.Ethnic;
@@ -13,6 +17,9 @@ import java.time.Instant;
  */
 
 @Document("videos")
+@CompoundIndexes({
+    @CompoundIndex(name = "ethnic_created_idx", def = "{'ethnic': 1, 'createdAt': -1}")
+})
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class You2beVideo {
     @Id
@@ -22,5 +29,6 @@ public class You2beVideo {
     private String url;
     private String thumbnailUrl;
     private String note;
+    @Indexed(direction = IndexDirection.DESCENDING)
     private Instant createdAt;
 }
@@ -3,19 +3,20 @@ package com.example.blog.repository;
 import com.example.blog.enums.Ethnic;
 import com.example.blog.model.Clip;
 
-import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 
 public interface ClipRepository extends MongoRepository<Clip, String> {
 
-    @Query(value = "{}", fields = "{ '_id': 1 }")
-    List<String> findAllIds();
+    @SecondaryRead
+    @Override
+    Page<Clip> findAll(Pageable pageable);
 
+    @SecondaryRead
     Page<Clip> findByEthnic(Ethnic ethnic, Pageable pageable);
 
+    @SecondaryRead
     Page<Clip> findByNameContainingIgnoreCase(String name, Pageable pageable);
 }
@@ -1,9 +1,11 @@
 package com.example.blog.repository;
 
 import com.example.blog.enums.Ethnic;
+import com.example.blog.enums.ImageType;
 import com.example.blog.model.Image;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +14,18 @@ import org.springframework.data.mongodb.repository.Query;
 
 public interface ImageRepository extends MongoRepository<Image, String> {
 
-    @Query(value = "{}", fields = "{ '_id': 1 }")
-    List<String> findAllIds();
-
+    @SecondaryRead
     @Query(value = "{}", sort = "{ 'createdAt': -1 }")
     Page<Image> findAllOrderByCreatedAtDesc(Pageable pageable);
 
+    List<Image> findByType(ImageType type);
+
+    /* an identical file in another ethnic folder is a separate image there (own Drive file and sync partition) */
+    Optional<Image> findFirstByContentHashAndEthnic(String contentHash, Ethnic ethnic);
+
+    @SecondaryRead
     Page<Image> findByEthnicOrderByCreatedAtDesc(Ethnic ethnic, Pageable pageable);
 
+    @SecondaryRead
     Page<Image> findByNameContainingIgnoreCaseOrderByCreatedAtDesc(String name, Pageable pageable);
 }
@@ -0,0 +1,25 @@
+package com.example.blog.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*
+ * Marks a public, staleness-tolerant read: while the method runs, its MongoDB reads go to a secondary
+ * (secondaryPreferred) that lags the primary by at most maxStalenessSeconds. Works on repository methods
+ * and on service methods that use MongoTemplate directly; see ReadRoutingConfig.
+ *
+ * The bound can be overridden per method with mongo.read.secondary.methods.<Type>.<method>=<seconds>,
+ * where 0 keeps that method on the primary. Calls made for a signed-in user always read from the primary,
+ * so editors see their own writes.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface SecondaryRead {
+
+    /* -1: mongo.read.secondary.max-staleness-seconds; MongoDB rejects values below 90 */
+    int maxStalenessSeconds() default -1;
+}
@@ -15,7 +15,13 @@ public interface VideoRepository extends MongoRepository<You2beVideo, String> {
     @Query(value = "{}", fields = "{ '_id': 1 }")
     List<String> findAllIds();
 
+    @SecondaryRead
+    @Override
+    Page<You2beVideo> findAll(Pageable pageable);
+
+    @SecondaryRead
     Page<You2beVideo> findByEthnic(Ethnic ethnic, Pageable pageable);
 
+    @SecondaryRead
     Page<You2beVideo> findByNameContainingIgnoreCase(String name, Pageable pageable);
 }
@@ -0,0 +1,74 @@
+package com.example.blog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Counts failed logins per client IP and per (client IP, username) within a fixed window.
+ * The username counter is scoped to the IP so that nobody can lock an account (e.g. admin) out for everyone
+ * by failing its password on purpose.
+ */
+@Service
+public class LoginAttemptService {
+
+    private static final int MAX_TRACKED_KEYS = 100_000;
+
+    private final Cache<String, AtomicInteger> failuresByIp;
+    private final Cache<String, AtomicInteger> failuresByIpAndUsername;
+    private final int maxFailuresPerIp;
+    private final int maxFailuresPerUsername;
+
+    public LoginAttemptService(@Value("${auth.throttle.max-failures-per-ip:20}") int maxFailuresPerIp,
+                               @Value("${auth.throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+                               @Value("${auth.throttle.window-minutes:15}") long windowMinutes) {
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.failuresByIp = newCounterCache(windowMinutes);
+        this.failuresByIpAndUsername = newCounterCache(windowMinutes);
+    }
+
+    public boolean isBlocked(String clientIp, String username) {
+        return count(failuresByIp, clientIp) >= maxFailuresPerIp
+                || count(failuresByIpAndUsername, userKey(clientIp, username)) >= maxFailuresPerUsername;
+    }
+
+    public void loginFailed(String clientIp, String username) {
+        increment(failuresByIp, clientIp);
+        increment(failuresByIpAndUsername, userKey(clientIp, username));
+    }
+
+    public void loginSucceeded(String clientIp, String username) {
+        String key = userKey(clientIp, username);
+        if (key != null) {
+            failuresByIpAndUsername.invalidate(key);
+        }
+    }
+
+    private static Cache<String, AtomicInteger> newCounterCache(long windowMinutes) {
+        return Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_KEYS)
+                .expireAfterWrite(Duration.ofMinutes(windowMinutes))
+                .build();
+    }
+
+    private static int count(Cache<String, AtomicInteger> cache, String key) {
+        if (key == null) return 0;
+        AtomicInteger counter = cache.getIfPresent(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static void increment(Cache<String, AtomicInteger> cache, String key) {
+        if (key == null) return;
+        cache.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+
+    private static String userKey(String clientIp, String username) {
+        return username == null ? null : clientIp + "|" + username.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.blog.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * HMAC-SHA256 signatures for media proxy URLs, checkable at a CDN / reverse proxy without calling the backend:
+ *   /proxy/drive:     sig = base64url-nopad( HMAC-SHA256(media.signing.secret, "<id>:<name>:<exp>") )
+ *   /proxy/thumbnail: sig = base64url-nopad( HMAC-SHA256(media.signing.secret, "thumbnail:<id>:<exp>") )
+ *   derived media:    sig = base64url-nopad( HMAC-SHA256(media.signing.secret, "<scope>:<id>:<exp>") ), one signature
+ *                     for everything generated from an image (e.g. scope "tiles" covers the preview and every tile)
+ * exp in epoch seconds, name empty when absent. name picks the response Content-Type, so it is signed too.
+ * Expiry is rounded up to a ttl-sized bucket so a file keeps the same URL (and cache key) for a whole window,
+ * which also lets signatures be memoized per payload: a catalog render or list page signs each file once per window.
+ * Each HMAC runs on a clone of one initialized Mac (no provider lookup or key setup per URL); a ThreadLocal would
+ * not help with virtual request threads, which never live past one request.
+ */
+@Service
+public class MediaUrlSigner {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int MAX_MEMOIZED_SIGNATURES = 100_000;
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final Mac prototype;
+    private final Cache<String, String> signatures;
+    private final long ttlSeconds;
+    private final long cacheMaxAgeSeconds;
+
+    public MediaUrlSigner(@Value("${media.signing.enabled:false}") boolean enabled,
+                          @Value("${media.signing.secret:}") String secret,
+                          @Value("${media.signing.ttl-seconds:21600}") long ttlSeconds,
+                          @Value("${media.cache-max-age-seconds:86400}") long cacheMaxAgeSeconds) {
+        if (enabled && secret.isBlank()) {
+            throw new IllegalStateException("media.signing.secret must be set when media.signing.enabled=true");
+        }
+        this.enabled = enabled;
+        this.key = enabled ? new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM) : null;
+        this.prototype = enabled ? newMac() : null;
+        // an expiry bucket is in use for at most two ttl windows
+        this.signatures = Caffeine.newBuilder()
+                .maximumSize(MAX_MEMOIZED_SIGNATURES)
+                .expireAfterWrite(Duration.ofSeconds(2 * ttlSeconds))
+                .build();
+        this.ttlSeconds = ttlSeconds;
+        this.cacheMaxAgeSeconds = cacheMaxAgeSeconds;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /*
+     * Valid for at least one ttl and at most two; identical for every request within the same window
+     */
+    public long currentExpiry() {
+        long now = Instant.now().getEpochSecond();
+        return (now / ttlSeconds + 2) * ttlSeconds;
+    }
+
+    public String sign(String driveId, String name, long expiresAt) {
+        return signatures.get(payload(driveId, name, expiresAt), this::hmac);
+    }
+
+    public String signThumbnail(String driveId, long expiresAt) {
+        return signScoped("thumbnail", driveId, expiresAt);
+    }
+
+    public String signScoped(String scope, String id, long expiresAt) {
+        return signatures.get(scopedPayload(scope, id, expiresAt), this::hmac);
+    }
+
+    /*
+     * "?exp=..&sig=.." for a derived-media URL, or "" when signing is off
+     */
+    public String scopedQuery(String scope, String id) {
+        if (!enabled) {
+            return "";
+        }
+        long expiresAt = currentExpiry();
+        return "?exp=" + expiresAt + "&sig=" + signScoped(scope, id, expiresAt);
+    }
+
+    public boolean verify(String driveId, String name, Long expiresAt, String signature) {
+        return driveId != null && expiresAt != null && matches(payload(driveId, name, expiresAt), expiresAt, signature);
+    }
+
+    public boolean verifyThumbnail(String driveId, Long expiresAt, String signature) {
+        return verifyScoped("thumbnail", driveId, expiresAt, signature);
+    }
+
+    public boolean verifyScoped(String scope, String id, Long expiresAt, String signature) {
+        return id != null && expiresAt != null && matches(scopedPayload(scope, id, expiresAt), expiresAt, signature);
+    }
+
+    private static String payload(String driveId, String name, long expiresAt) {
+        return driveId + ":" + (name != null ? name : "") + ":" + expiresAt;
+    }
+
+    private static String scopedPayload(String scope, String id, long expiresAt) {
+        return scope + ":" + id + ":" + expiresAt;
+    }
+
+    /*
+     * Uses a memoized signature when there is one but never adds to the memo: exp comes from the caller
+     */
+    private boolean matches(String payload, long expiresAt, String signature) {
+        if (signature == null || expiresAt < Instant.now().getEpochSecond()) {
+            return false;
+        }
+        String expected = signatures.getIfPresent(payload);
+        if (expected == null) {
+            expected = hmac(payload);
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private String hmac(String payload) {
+        if (prototype == null) {
+            throw new IllegalStateException("media.signing.enabled=false, nothing to sign with");
+        }
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            mac = newMac();
+        }
+        byte[] digest = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign media URL", e);
+        }
+    }
+
+    /*
+     * Proxied media may be cached at the edge, but a signed response never beyond the URL's own expiry
+     */
+    public CacheControl cacheControlFor(Long expiresAt) {
+        long maxAge = cacheMaxAgeSeconds;
+        if (enabled && expiresAt != null) {
+            maxAge = Math.min(maxAge, Math.max(0, expiresAt - Instant.now().getEpochSecond()));
+        }
+        return CacheControl.maxAge(maxAge, TimeUnit.SECONDS).cachePublic();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.blog.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Dedicated, size-capped pool for BCrypt work so that login bursts cannot pin the Tomcat workers.
+ * Tasks over the queue limit are rejected immediately instead of waiting.
+ */
+@Component
+@Log4j2
+public class PasswordHashingExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public PasswordHashingExecutor(@Value("${auth.hashing.threads:2}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:16}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("pwd-hash-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        // queue depth, active threads and rejections under executor.* with name=passwordHashing
+        new ExecutorServiceMetrics(executor, "passwordHashing", Tags.empty()).bindTo(meterRegistry);
+        log.info("Password hashing executor started with {} threads, queue capacity {}", threads, queueCapacity);
+    }
+
+    /**
+     * Run a hashing task on the bounded pool
+     * @throws RejectedExecutionException if the pool and its queue are full
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, executor);
+    }
+
+    /**
+     * supplyAsync for request handlers: a full pool answers 503 instead of waiting
+     */
+    public <T> CompletableFuture<T> supplyForRequest(Supplier<T> task) {
+        try {
+            return supplyAsync(task);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, try again later");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
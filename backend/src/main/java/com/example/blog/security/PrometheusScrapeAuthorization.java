@@ -0,0 +1,58 @@
+package com.example.blog.security;
+
+import com.example.blog.enums.Roles;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.function.Supplier;
+
+/*
+ * Access to /actuator/prometheus: the long-lived scrape credential (metrics.prometheus.scrape-token, sent by the
+ * scraper as "Authorization: Bearer <token>"), independent of user logins and JWT expiry; an ADMIN session can
+ * still look at the endpoint by hand. Without a configured token only ADMIN gets in.
+ */
+@Component
+public class PrometheusScrapeAuthorization implements AuthorizationManager<RequestAuthorizationContext> {
+
+    private static final String BEARER = "Bearer ";
+
+    private final byte[] scrapeToken;
+
+    public PrometheusScrapeAuthorization(@Value("${metrics.prometheus.scrape-token:}") String scrapeToken) {
+        this.scrapeToken = scrapeToken.isBlank() ? null : scrapeToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, RequestAuthorizationContext context) {
+        return new AuthorizationDecision(hasScrapeToken(context.getRequest().getHeader(HttpHeaders.AUTHORIZATION))
+                || isAdmin(authentication.get()));
+    }
+
+    private boolean hasScrapeToken(String header) {
+        if (scrapeToken == null || header == null || !header.startsWith(BEARER)) {
+            return false;
+        }
+        return MessageDigest.isEqual(scrapeToken, header.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (Roles.ADMIN.getAuthority().equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
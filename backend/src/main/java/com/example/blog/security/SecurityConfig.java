@@ -1,7 +1,10 @@
 package com.example.blog.security;
 
+import com.example.blog.model.User;
 import com.example.blog.repository.UserRepository;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -10,6 +13,7 @@ import org.springframework.security.authentication.dao.DaoAuthenticationProvider
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -28,20 +32,35 @@ import java.util.List;
 @RequiredArgsConstructor
 public class SecurityConfig {
     private final JwtAuthFilter jwtAuthFilter;
+    private final PrometheusScrapeAuthorization prometheusScrapeAuthorization;
     private final UserRepository userRepository;
 
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
     @Bean
     UserDetailsService userDetailsService() {
         return username -> userRepository.findByUsername(username).orElseThrow();
     }
 
-    @Bean PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+    @Bean PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(bcryptStrength); }
+
+    // Re-hash stored passwords whose BCrypt cost is below the configured strength on successful login
+    @Bean
+    UserDetailsPasswordService userDetailsPasswordService() {
+        return (userDetails, newPassword) -> {
+            User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow();
+            user.setPassword(newPassword);
+            return userRepository.save(user);
+        };
+    }
 
     @Bean
     DaoAuthenticationProvider authProvider(UserDetailsService uds, PasswordEncoder encoder) {
         var p = new DaoAuthenticationProvider();
         p.setUserDetailsService(uds);
         p.setPasswordEncoder(encoder);
+        p.setUserDetailsPasswordService(userDetailsPasswordService());
         return p;
     }
 
@@ -59,6 +78,9 @@ public class SecurityConfig {
         http.cors(c -> {});
 
         http.authorizeHttpRequests(auth -> auth
+                // CompletableFuture handlers (login, user/password changes) write their result in an ASYNC
+                // re-dispatch that JwtAuthFilter does not run on; the REQUEST dispatch was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                 .requestMatchers(HttpMethod.GET, "/api/posts/**").permitAll()
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
@@ -67,6 +89,10 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.DELETE, "/api/posts/**").hasAnyRole("ADMIN","MANAGER")
                 .requestMatchers("/api/uploads/**").hasAnyRole("ADMIN","MANAGER")
                 .requestMatchers("/api/users/**").authenticated()
+                // liveness for the platform; metrics with the scrape token (or an ADMIN token), anything else ADMIN
+                .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/prometheus").access(prometheusScrapeAuthorization)
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().permitAll()
         );
 
@@ -0,0 +1,39 @@
+package com.example.blog.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+public interface CatalogService {
+
+    /*
+     * Current manifest of all images, clips and videos, built after the last sync
+     */
+    Buffer getManifest();
+
+    /*
+     * Changes from version since to the current version, or null when since is no longer retained
+     * (the client then fetches the full manifest)
+     */
+    Buffer getDelta(long since);
+
+    /*
+     * Re-read the collections and publish a new version if anything changed
+     */
+    void rebuild();
+
+    /*
+     * Rebuild in the background; requests arriving while one is already queued are merged into it
+     */
+    void requestRebuild();
+
+    /*
+     * Pre-serialized, gzip-compressed CatalogDto
+     */
+    @Getter
+    @RequiredArgsConstructor
+    final class Buffer {
+        private final long version;
+        private final String etag;
+        private final byte[] gzip;
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.blog.service;
+
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Single in-memory fan-out of ChangeEvents to SSE subscribers.
+ * Each event is serialized once; publishers only enqueue it into every subscriber's bounded buffer, and a small
+ * sender pool writes the buffers out. A subscriber whose buffer is full is disconnected (EventSource reconnects
+ * and the client refetches) rather than buffered without limit or allowed to slow the publisher down.
+ */
+@Component
+@Log4j2
+public class ChangeFeedBroadcaster implements DisposableBean {
+
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Counter dropped;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+
+    public ChangeFeedBroadcaster(ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${changes.sender-threads:4}") int senderThreads,
+                                 @Value("${changes.buffer-size:64}") int bufferSize,
+                                 @Value("${changes.max-subscribers:2000}") int maxSubscribers,
+                                 @Value("${changes.timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${changes.reconnect-ms:5000}") long reconnectMillis) {
+        this.objectMapper = objectMapper;
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("sse-send-"));
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.dropped = Counter.builder("changes.dropped")
+                .description("Change feed subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("changes.subscribers", subscribers, Set::size)
+                .description("Open change feed (SSE) connections")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(sender, "changeFeedSender", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    /**
+     * Open a stream for one client
+     * @throws ResponseStatusException 503 when max-subscribers streams are already open
+     */
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.offer(SseEmitter.event().reconnectTime(reconnectMillis).comment("connected").build());
+        return emitter;
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event.compact());
+        } catch (JsonProcessingException e) {
+            log.error("Cannot serialize change event {}", event, e);
+            return;
+        }
+        broadcast(SseEmitter.event()
+                .id(Long.toString(sequence.incrementAndGet()))
+                .name(event.getType())
+                .data(json)
+                .build());
+    }
+
+    @EventListener
+    public void onSyncCompleted(SyncCompletedEvent event) {
+        onChange(ChangeEvent.syncCompleted(event));
+    }
+
+    /* keeps idle connections open through proxies and notices dead clients */
+    @Scheduled(fixedDelayString = "${changes.heartbeat-ms:20000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("heartbeat").build());
+        }
+    }
+
+    private void broadcast(Set<DataWithMediaType> frame) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(s -> s.emitter.complete());
+        sender.shutdown();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<DataWithMediaType>> buffer;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(Set<DataWithMediaType> frame) {
+            if (!buffer.offer(frame)) {
+                dropped.increment();
+                disconnect(this);
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    disconnect(this);
+                }
+            }
+        }
+
+        /* at most one drain per subscriber runs at a time, so frames keep their order */
+        private void drain() {
+            try {
+                do {
+                    for (Set<DataWithMediaType> frame; (frame = buffer.poll()) != null; ) {
+                        emitter.send(frame);
+                    }
+                    draining.set(false);
+                } while (!buffer.isEmpty() && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                draining.set(false);
+                disconnect(this);
+            }
+        }
+    }
+}
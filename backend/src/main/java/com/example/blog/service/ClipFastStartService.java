@@ -0,0 +1,12 @@
+package com.example.blog.service;
+
+import java.nio.file.Path;
+
+public interface ClipFastStartService {
+
+    /*
+     * Local fast-start copy of a clip for the media proxy, or null when the proxy should stream from Drive:
+     * not built yet (building is then queued), already fast-start in Drive, or not a synced clip
+     */
+    Path getFastStart(String driveId);
+}
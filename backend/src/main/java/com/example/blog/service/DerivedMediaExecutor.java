@@ -0,0 +1,63 @@
+package com.example.blog.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Small bounded pool that builds LocalMediaCache entries in the background.
+ * At most one task per key is queued or running; a task over the queue limit is dropped,
+ * since the entry is requested again on the next sync or view.
+ */
+@Log4j2
+public class DerivedMediaExecutor {
+
+    @FunctionalInterface
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public DerivedMediaExecutor(String name, int threads, int queueCapacity) {
+        this.name = name;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory(name + "-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public void submit(String key, Task task) {
+        if (!inFlight.add(key)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (IOException | RuntimeException e) {
+                    log.error("{}: building {} failed", name, key, e);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key);
+            log.warn("{}: queue full, {} will be built on a later request", name, key);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
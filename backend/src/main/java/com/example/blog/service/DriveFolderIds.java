@@ -0,0 +1,65 @@
+package com.example.blog.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Ids of the files in a Drive folder that is listed live rather than synced (360 and 3D folders).
+ * A lookup of an unknown id re-lists the folder at most once per refresh interval,
+ * so requests for random ids cannot turn into a stream of Drive calls.
+ * Concurrent refreshes share one listing: the first caller lists, the others wait for its result
+ * without holding a monitor (lookups run on request threads, which may be virtual).
+ */
+@Log4j2
+public class DriveFolderIds {
+
+    @FunctionalInterface
+    public interface Lister {
+        Collection<String> list() throws IOException;
+    }
+
+    private final String name;
+    private final Lister lister;
+    private final long refreshMillis;
+
+    private volatile Set<String> ids = Set.of();
+    private volatile long refreshedAt;
+    private final AtomicReference<CompletableFuture<Set<String>>> inFlight = new AtomicReference<>();
+
+    public DriveFolderIds(String name, Lister lister, long refreshMillis) {
+        this.name = name;
+        this.lister = lister;
+        this.refreshMillis = refreshMillis;
+    }
+
+    public boolean contains(String id) {
+        if (!ids.contains(id) && System.currentTimeMillis() - refreshedAt > refreshMillis) {
+            refresh();
+        }
+        return ids.contains(id);
+    }
+
+    public Set<String> refresh() {
+        CompletableFuture<Set<String>> listing = new CompletableFuture<>();
+        CompletableFuture<Set<String>> running = inFlight.compareAndExchange(null, listing);
+        if (running != null) {
+            return running.join();
+        }
+        try {
+            ids = new HashSet<>(lister.list());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot list the {} folder: {}", name, e.getMessage());
+        } finally {
+            refreshedAt = System.currentTimeMillis();
+            listing.complete(ids);
+            inFlight.set(null);
+        }
+        return ids;
+    }
+}
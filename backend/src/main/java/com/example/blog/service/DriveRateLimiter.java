@@ -0,0 +1,98 @@
+package com.example.blog.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Process-wide budgets for Drive API requests made through the Drive client, taken before each request goes out
+ * (see GoogleDriveConfig), so parallel folder syncs and uploads queue here instead of running into Drive's per-user
+ * quota (403 userRateLimitExceeded).
+ *
+ * Two separate budgets, so a viewer never waits behind a sync: calls made inside interactive() (the blocking media
+ * and thumbnail proxy in GgDriveController) take gdrive.rate-limit.interactive-*, everything else (syncs, uploads,
+ * derived-media builds) takes gdrive.rate-limit.*. Keep their sum under the Drive quota.
+ * The reactive proxy (ReactiveMediaProxyHandler) calls the Drive REST API through WebClient and takes neither:
+ * waiting for a permit would block an event-loop thread.
+ *
+ * Each budget is a smooth token bucket: one permit every 1/requestsPerSecond, up to burst permits saved up while
+ * idle. The next free slot is reserved with a compare-and-set, so waiting callers hold no monitor.
+ */
+@Component
+public class DriveRateLimiter {
+
+    private static final ThreadLocal<Boolean> INTERACTIVE = new ThreadLocal<>();
+
+    private final Bucket background;
+    private final Bucket interactive;
+
+    public DriveRateLimiter(@Value("${gdrive.rate-limit.requests-per-second:10}") double requestsPerSecond,
+                            @Value("${gdrive.rate-limit.burst:20}") int burst,
+                            @Value("${gdrive.rate-limit.interactive-requests-per-second:5}") double interactiveRequestsPerSecond,
+                            @Value("${gdrive.rate-limit.interactive-burst:10}") int interactiveBurst) {
+        this.background = new Bucket(requestsPerSecond, burst);
+        this.interactive = new Bucket(interactiveRequestsPerSecond, interactiveBurst);
+    }
+
+    /**
+     * Blocks until the caller may send one request, from the interactive budget inside interactive();
+     * returns at once when that budget is off (requests-per-second=0)
+     */
+    public void acquire() throws InterruptedIOException {
+        (Boolean.TRUE.equals(INTERACTIVE.get()) ? interactive : background).acquire();
+    }
+
+    /**
+     * Drive requests sent by this thread until the scope is closed count against the interactive budget
+     */
+    public Scope interactive() {
+        INTERACTIVE.set(Boolean.TRUE);
+        return INTERACTIVE::remove;
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final class Bucket {
+
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLong nextFreeNanos;
+
+        Bucket(double requestsPerSecond, int burst) {
+            this.intervalNanos = requestsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond) : 0;
+            // the request sent right away counts as one of the burst
+            this.burstNanos = intervalNanos * (Math.max(burst, 1) - 1);
+            this.nextFreeNanos = new AtomicLong(System.nanoTime() - burstNanos);
+        }
+
+        void acquire() throws InterruptedIOException {
+            if (intervalNanos == 0) {
+                return;
+            }
+            long now;
+            long reserved;
+            long slot;
+            do {
+                now = System.nanoTime();
+                reserved = nextFreeNanos.get();
+                // permits saved while idle are capped at burst
+                slot = Math.max(reserved, now - burstNanos);
+            } while (!nextFreeNanos.compareAndSet(reserved, slot + intervalNanos));
+            long waitNanos = slot - now;
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for a Drive request permit");
+                }
+            }
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.blog.service;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.List;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,15 +10,30 @@ import org.springframework.data.domain.Pageable;
 import com.example.blog.dto.ClipDto;
 import com.example.blog.dto.ImageDto;
 import com.example.blog.enums.Ethnic;
+import com.google.api.services.drive.model.File;
 
 public interface GgDriveService {
 
-    String uploadImage(java.io.File image, ImageDto imageDto) throws Exception;
+    /**
+     * Upload an image into the ethnic folder of Google Drive
+     * @return the created Drive file with its id and MIME type
+     */
+    File uploadImage(java.io.File image, ImageDto imageDto) throws Exception;
 
     Page<ImageDto> get3dImages(Pageable pageable) throws IOException;
 
     Page<ImageDto> get360Images(Pageable pageable) throws IOException;
 
+    /*
+     * Drive ids of all images in the 360 folder (and its subfolders)
+     */
+    List<String> get360ImageIds() throws IOException;
+
+    /*
+     * Drive ids of the GLB models in the 3D folder
+     */
+    List<String> get3dModelIds() throws IOException;
+
     /*
      * Sync Google Drive images folder to DB
      */
@@ -42,7 +58,12 @@ public interface GgDriveService {
 
     InputStream getFileContent(String fileId) throws IOException;
     
-    String getThumbnailUrlForFile(String fileUrl) throws IOException;
+    String getThumbnailUrlForFile(String fileId) throws IOException;
+
+    /**
+     * Current thumbnail bytes of a Drive file, or null when Drive has none
+     */
+    InputStream getThumbnailContent(String fileId) throws IOException;
     
     /**
      * Delete a file from Google Drive by its ID
@@ -0,0 +1,176 @@
+package com.example.blog.service;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/*
+ * Disk cache for media derived from Drive files (panorama tiles, ...) under media.cache-dir: <area>/<key>.
+ * Entries are built in a work directory of the same area and moved into place in one step,
+ * so a reader sees either no entry or a complete one.
+ * The total size is capped at media.cache-max-mb: publishing an entry evicts the least recently used ones
+ * until the cache fits again. An evicted entry is simply built again on its next request.
+ */
+@Component
+@Log4j2
+public class LocalMediaCache {
+
+    private static final Pattern KEY = Pattern.compile("[-A-Za-z0-9_]{1,128}");
+    private static final String WORK_DIRECTORY = ".work";
+
+    private final Path root;
+    private final long maxBytes;
+    /* published entries with their size on disk; rebuilt from the directory on startup */
+    private final Map<Path, Usage> usage = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+
+    public LocalMediaCache(@Value("${media.cache-dir:${java.io.tmpdir}/daklak-media}") String root,
+                           @Value("${media.cache-max-mb:2048}") long maxMb) {
+        this.root = Path.of(root).toAbsolutePath();
+        this.maxBytes = maxMb * 1024L * 1024L;
+        scan();
+    }
+
+    private static final class Usage {
+        private final long bytes;
+        private volatile long lastUsed;
+
+        private Usage(long bytes, long lastUsed) {
+            this.bytes = bytes;
+            this.lastUsed = lastUsed;
+        }
+    }
+
+    /*
+     * Keys are Drive / Mongo ids; anything else could escape the cache directory
+     */
+    public boolean isValidKey(String key) {
+        return key != null && KEY.matcher(key).matches();
+    }
+
+    public Path entry(String area, String key) {
+        if (!isValidKey(key)) {
+            throw new IllegalArgumentException("Invalid media cache key: " + key);
+        }
+        Path entry = root.resolve(area).resolve(key);
+        Usage used = usage.get(entry);
+        if (used != null) {
+            used.lastUsed = System.currentTimeMillis();
+        }
+        return entry;
+    }
+
+    public Path newWorkDirectory(String area) throws IOException {
+        Path work = Files.createDirectories(root.resolve(area).resolve(WORK_DIRECTORY));
+        return Files.createTempDirectory(work, "build-");
+    }
+
+    /*
+     * Replace the entry with a file or directory built under newWorkDirectory(area)
+     */
+    public void publish(Path built, Path entry) throws IOException {
+        long bytes = sizeOf(built);
+        delete(entry);
+        Files.move(built, entry, StandardCopyOption.ATOMIC_MOVE);
+        register(entry, new Usage(bytes, System.currentTimeMillis()));
+        evict(entry);
+    }
+
+    public void delete(Path path) {
+        Usage removed = usage.remove(path);
+        if (removed != null) {
+            totalBytes.addAndGet(-removed.bytes);
+        }
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        } catch (IOException e) {
+            log.warn("Cannot delete media cache entry {}: {}", path, e.getMessage());
+        }
+    }
+
+    private void register(Path entry, Usage used) {
+        Usage previous = usage.put(entry, used);
+        totalBytes.addAndGet(used.bytes - (previous != null ? previous.bytes : 0));
+    }
+
+    /*
+     * Drops least recently used entries, never the one just published, until the cache is under maxBytes;
+     * maxBytes 0 turns the cap off
+     */
+    private void evict(Path keep) {
+        if (maxBytes <= 0 || totalBytes.get() <= maxBytes) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            List<Map.Entry<Path, Usage>> candidates = new ArrayList<>(usage.entrySet());
+            candidates.sort(Comparator.comparingLong(candidate -> candidate.getValue().lastUsed));
+            for (Map.Entry<Path, Usage> candidate : candidates) {
+                if (totalBytes.get() <= maxBytes) {
+                    break;
+                }
+                if (!candidate.getKey().equals(keep)) {
+                    log.info("Evicting media cache entry {} ({} bytes)", candidate.getKey(), candidate.getValue().bytes);
+                    delete(candidate.getKey());
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /*
+     * Indexes what earlier runs left on disk (last use = modification time) and clears abandoned builds
+     */
+    private void scan() {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> areas = Files.list(root)) {
+            for (Path area : areas.filter(Files::isDirectory).toList()) {
+                try (Stream<Path> entries = Files.list(area)) {
+                    for (Path entry : entries.toList()) {
+                        if (entry.getFileName().toString().equals(WORK_DIRECTORY)) {
+                            delete(entry);
+                        } else {
+                            register(entry, new Usage(sizeOf(entry), Files.getLastModifiedTime(entry).toMillis()));
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot index media cache {}: {}", root, e.getMessage());
+        }
+        log.info("Media cache {} holds {} entries, {} bytes", root, usage.size(), totalBytes.get());
+        evict(null);
+    }
+
+    private static long sizeOf(Path path) throws IOException {
+        try (Stream<Path> files = Files.walk(path)) {
+            long bytes = 0;
+            for (Path file : files.filter(Files::isRegularFile).toList()) {
+                bytes += Files.size(file);
+            }
+            return bytes;
+        }
+    }
+}
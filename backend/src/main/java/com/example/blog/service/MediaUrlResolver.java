@@ -0,0 +1,100 @@
+package com.example.blog.service;
+
+import com.example.blog.security.MediaUrlSigner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/*
+ * Builds public media URLs at serialization time; documents only keep the Drive id,
+ * so changing media.base-url (e.g. to a CDN origin) or turning on signing needs no re-sync
+ */
+@Service
+public class MediaUrlResolver {
+
+    private static final String PROXY_PATH = "/api/ggdrive/proxy/drive";
+    private static final String THUMBNAIL_PATH = "/api/ggdrive/proxy/thumbnail";
+
+    private final String baseUrl;
+    private final MediaUrlSigner mediaUrlSigner;
+
+    public MediaUrlResolver(@Value("${media.base-url:http://localhost:9090}") String baseUrl,
+                            MediaUrlSigner mediaUrlSigner) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.mediaUrlSigner = mediaUrlSigner;
+    }
+
+    public String resolve(String driveId, String name) {
+        if (driveId == null) {
+            return null;
+        }
+        StringBuilder url = new StringBuilder(baseUrl.length() + PROXY_PATH.length() + 96)
+                .append(baseUrl)
+                .append(PROXY_PATH)
+                .append("?id=").append(driveId);
+        if (name != null) {
+            url.append("&name=").append(UriUtils.encodeQueryParam(name, StandardCharsets.UTF_8));
+        }
+        if (mediaUrlSigner.isEnabled()) {
+            long expiresAt = mediaUrlSigner.currentExpiry();
+            url.append("&exp=").append(expiresAt)
+               .append("&sig=").append(mediaUrlSigner.sign(driveId, name, expiresAt));
+        }
+        return url.toString();
+    }
+
+    /*
+     * Drive's thumbnailLink of a private file is short-lived, so thumbnails are fetched fresh by the proxy
+     */
+    public String resolveThumbnail(String driveId) {
+        if (driveId == null) {
+            return null;
+        }
+        StringBuilder url = new StringBuilder(baseUrl.length() + THUMBNAIL_PATH.length() + 96)
+                .append(baseUrl)
+                .append(THUMBNAIL_PATH)
+                .append("?id=").append(driveId);
+        if (mediaUrlSigner.isEnabled()) {
+            long expiresAt = mediaUrlSigner.currentExpiry();
+            url.append("&exp=").append(expiresAt)
+               .append("&sig=").append(mediaUrlSigner.signThumbnail(driveId, expiresAt));
+        }
+        return url.toString();
+    }
+
+    /*
+     * Falls back to the stored thumbnail only for documents that cannot be tied to a Drive file
+     */
+    public String resolveThumbnail(String driveId, String storedUrl, String storedThumbnailUrl) {
+        String id = driveId != null ? driveId : legacyDriveId(storedUrl);
+        return id != null ? resolveThumbnail(id) : storedThumbnailUrl;
+    }
+
+    /*
+     * Documents written before driveId existed still carry the URL baked in at sync time;
+     * the Drive id is recovered from its id= parameter so they get the current base and signature too
+     */
+    public String resolve(String driveId, String name, String storedUrl) {
+        if (driveId != null) {
+            return resolve(driveId, name);
+        }
+        String legacyId = legacyDriveId(storedUrl);
+        return legacyId != null ? resolve(legacyId, name) : storedUrl;
+    }
+
+    private static String legacyDriveId(String storedUrl) {
+        if (storedUrl == null || !storedUrl.contains(PROXY_PATH)) {
+            return null;
+        }
+        int start = storedUrl.indexOf("?id=");
+        if (start < 0) {
+            return null;
+        }
+        start += 4;
+        int end = storedUrl.indexOf('&', start);
+        return end < 0 ? storedUrl.substring(start) : storedUrl.substring(start, end);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.ModelLodDto;
+
+import java.nio.file.Path;
+
+public interface ModelLodService {
+
+    /*
+     * LOD manifest of a GLB model, or null while the preview has not been built yet (building is then queued)
+     */
+    ModelLodDto getLod(String imageId);
+
+    /*
+     * Cached preview GLB, or null if it does not exist
+     */
+    Path getPreview(String imageId);
+}
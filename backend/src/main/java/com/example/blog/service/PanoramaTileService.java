@@ -0,0 +1,23 @@
+package com.example.blog.service;
+
+import com.example.blog.dto.TileSetDto;
+
+import java.nio.file.Path;
+
+public interface PanoramaTileService {
+
+    /*
+     * Tile pyramid of a 360 image, or null while it has not been generated yet (generation is then queued)
+     */
+    TileSetDto getTileSet(String imageId);
+
+    /*
+     * Cached tile file, or null if it does not exist
+     */
+    Path getTile(String imageId, int level, int col, int row);
+
+    /*
+     * Whole panorama at the lowest level, or null if not generated
+     */
+    Path getPreview(String imageId);
+}
@@ -3,6 +3,7 @@ package com.example.blog.service;
 import java.util.List;
 
 import com.example.blog.dto.PostDto;
+import com.example.blog.dto.PostSummaryDto;
 import com.example.blog.enums.PostCategory;
 
 import org.springframework.data.domain.Page;
@@ -10,9 +11,12 @@ import org.springframework.data.domain.Pageable;
 
 public interface PostService {
     
-    Page<PostDto> getList(PostCategory category, String searchQuery, String language, Pageable pageable);
+    /*
+     * List pages carry summaries only; the HTML body is loaded by getById
+     */
+    Page<PostSummaryDto> getList(PostCategory category, String searchQuery, String language, Pageable pageable);
 
-    List<PostDto> getNews(String language);
+    List<PostSummaryDto> getNews(String language);
     
     PostDto getById(String id);
 
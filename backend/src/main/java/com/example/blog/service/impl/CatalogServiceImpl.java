@@ -0,0 +1,389 @@
+package com.example.blog.service.impl;
+
+import com.example.blog.dto.CatalogDto;
+import com.example.blog.dto.ClipDto;
+import com.example.blog.dto.ImageDto;
+import com.example.blog.dto.VideoDto;
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.mapper.ClipMapper;
+import com.example.blog.mapper.ImageMapper;
+import com.example.blog.mapper.VideoMapper;
+import com.example.blog.repository.ClipRepository;
+import com.example.blog.repository.ImageRepository;
+import com.example.blog.repository.VideoRepository;
+import com.example.blog.security.MediaUrlSigner;
+import com.example.blog.service.CatalogService;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/*
+ * Keeps the whole gallery as one pre-serialized, gzipped manifest plus the deltas to it from the last
+ * catalog.delta-history versions, so clients sync with a single request answered from memory.
+ *
+ * Rebuilt after each sync run and after single image/clip writes (uploads, edits, deletes). Entries are compared by a fingerprint of their DTO without the signed media URL,
+ * so only real content changes produce a new version; when signing is enabled the buffers are re-rendered
+ * (same version) once the signature window rolls over.
+ * The version is a hash of the fingerprints, so replicas holding the same data agree on it; a replica that never
+ * saw the client's version (e.g. started later) answers 410 and the client refetches the manifest.
+ * The first snapshot is built on startup; rebuilds hold a ReentrantLock (never a monitor) and requests only wait
+ * while no snapshot exists yet.
+ */
+@Service
+@Log4j2
+public class CatalogServiceImpl implements CatalogService {
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+
+    private final ImageRepository imageRepository;
+    private final ClipRepository clipRepository;
+    private final VideoRepository videoRepository;
+    private final ImageMapper imageMapper;
+    private final ClipMapper clipMapper;
+    private final VideoMapper videoMapper;
+    private final MediaUrlSigner mediaUrlSigner;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter fingerprintWriter;
+    private final int deltaHistory;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+
+    public CatalogServiceImpl(ImageRepository imageRepository,
+                              ClipRepository clipRepository,
+                              VideoRepository videoRepository,
+                              ImageMapper imageMapper,
+                              ClipMapper clipMapper,
+                              VideoMapper videoMapper,
+                              MediaUrlSigner mediaUrlSigner,
+                              ObjectMapper objectMapper,
+                              AsyncTaskExecutor applicationTaskExecutor,
+                              @Value("${catalog.delta-history:10}") int deltaHistory) {
+        this.imageRepository = imageRepository;
+        this.clipRepository = clipRepository;
+        this.videoRepository = videoRepository;
+        this.imageMapper = imageMapper;
+        this.clipMapper = clipMapper;
+        this.videoMapper = videoMapper;
+        this.mediaUrlSigner = mediaUrlSigner;
+        this.objectMapper = objectMapper;
+        this.fingerprintWriter = objectMapper.copy()
+                .addMixIn(ImageDto.class, WithoutUrl.class)
+                .addMixIn(ClipDto.class, WithoutUrl.class)
+                .writer();
+        this.deltaHistory = Math.max(0, deltaHistory);
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        applicationTaskExecutor.execute(this::rebuildIfNotPending);
+    }
+
+    /*
+     * A full sync publishes one event per ethnic folder; events arriving while a rebuild is queued collapse into it
+     */
+    @Async
+    @EventListener
+    public void onSyncCompleted(SyncCompletedEvent event) {
+        rebuildIfNotPending();
+    }
+
+    /*
+     * Uploads, edits and deletes outside a sync; a burst of them collapses into the queued rebuild the same way
+     */
+    @Async
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        String type = event.getType();
+        if (type.startsWith("image.") || type.startsWith("clip.")) {
+            rebuildIfNotPending();
+        }
+    }
+
+    @Override
+    @Async
+    public void requestRebuild() {
+        rebuildIfNotPending();
+    }
+
+    private void rebuildIfNotPending() {
+        if (!rebuildPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Catalog rebuild failed", e);
+        }
+    }
+
+    @Override
+    public Buffer getManifest() {
+        return current().manifest;
+    }
+
+    @Override
+    public Buffer getDelta(long since) {
+        return current().deltas.get(since);
+    }
+
+    @Override
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            rebuildPending.set(false);
+            render();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void render() {
+        Long urlsExpireAt = mediaUrlSigner.isEnabled() ? mediaUrlSigner.currentExpiry() : null;
+        List<ImageDto> images = imageRepository.findAll(NEWEST_FIRST).stream()
+                .map(imageMapper::toDto)
+                .collect(Collectors.toList());
+        List<ClipDto> clips = clipRepository.findAll(NEWEST_FIRST).stream()
+                .map(clipMapper::toDto)
+                .collect(Collectors.toList());
+        List<VideoDto> videos = videoRepository.findAll(NEWEST_FIRST).stream()
+                .map(videoMapper::toDto)
+                .collect(Collectors.toList());
+
+        Map<String, Map<String, Long>> fingerprints = Map.of(
+                SyncCompletedEvent.IMAGES, fingerprints(images, ImageDto::getId),
+                SyncCompletedEvent.CLIPS, fingerprints(clips, ClipDto::getId),
+                SyncCompletedEvent.VIDEOS, fingerprints(videos, VideoDto::getId));
+
+        Snapshot previous = snapshot;
+        boolean changed = previous == null || !previous.fingerprints.equals(fingerprints);
+        if (!changed && Objects.equals(previous.urlsExpireAt, urlsExpireAt)) {
+            return;
+        }
+        long version;
+        List<Version> history;
+        if (changed) {
+            long newVersion = versionOf(fingerprints);
+            version = newVersion;
+            history = new ArrayList<>();
+            if (previous != null && deltaHistory > 0) {
+                history.add(new Version(previous.version, previous.fingerprints));
+                history.addAll(previous.history.subList(0, Math.min(previous.history.size(), deltaHistory - 1)));
+            }
+            // content that went back to an earlier state gets that state's version again
+            history.removeIf(base -> base.version == newVersion);
+        } else {
+            version = previous.version;
+            history = previous.history;
+        }
+
+        Instant generatedAt = Instant.now();
+        CatalogDto manifest = CatalogDto.builder()
+                .version(version)
+                .generatedAt(generatedAt)
+                .urlsExpireAt(urlsExpireAt)
+                .images(images)
+                .clips(clips)
+                .videos(videos)
+                .build();
+        Buffer manifestBuffer = new Buffer(version, etag(version, null, urlsExpireAt), gzip(manifest));
+
+        Map<Long, Buffer> deltas = new HashMap<>();
+        List<Version> deltaBases = new ArrayList<>(history);
+        deltaBases.add(new Version(version, fingerprints));
+        for (Version base : deltaBases) {
+            Map<String, List<String>> removed = new HashMap<>();
+            fingerprints.forEach((kind, now) -> {
+                List<String> ids = removedSince(base.fingerprints.get(kind), now);
+                if (!ids.isEmpty()) {
+                    removed.put(kind, ids);
+                }
+            });
+            CatalogDto delta = CatalogDto.builder()
+                    .version(version)
+                    .since(base.version)
+                    .generatedAt(generatedAt)
+                    .urlsExpireAt(urlsExpireAt)
+                    .images(changedSince(images, ImageDto::getId, base, fingerprints, SyncCompletedEvent.IMAGES))
+                    .clips(changedSince(clips, ClipDto::getId, base, fingerprints, SyncCompletedEvent.CLIPS))
+                    .videos(changedSince(videos, VideoDto::getId, base, fingerprints, SyncCompletedEvent.VIDEOS))
+                    .removed(removed)
+                    .build();
+            deltas.put(base.version, new Buffer(version, etag(version, base.version, urlsExpireAt), gzip(delta)));
+        }
+
+        snapshot = new Snapshot(version, urlsExpireAt, fingerprints, history, manifestBuffer, deltas);
+        log.info("Catalog version {}: {} images, {} clips, {} videos, manifest {} bytes gzipped, {} deltas",
+                version, images.size(), clips.size(), videos.size(), manifestBuffer.getGzip().length, deltas.size());
+    }
+
+    /*
+     * Only a request arriving before the startup build waits (on the lock, which does not pin a virtual thread).
+     * When the signature window rolls over, the current URLs stay valid for at least one more ttl,
+     * so they are served while the re-render runs in the background.
+     */
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuildLock.lock();
+            try {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                return snapshot;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        if (mediaUrlSigner.isEnabled() && !Objects.equals(current.urlsExpireAt, mediaUrlSigner.currentExpiry())
+                && !rebuildPending.get()) {
+            applicationTaskExecutor.execute(this::rebuildIfNotPending);
+        }
+        return current;
+    }
+
+    /*
+     * Same fingerprints, same version on every instance: kinds and ids are hashed in sorted order
+     */
+    private static long versionOf(Map<String, Map<String, Long>> fingerprints) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            ByteBuffer entry = ByteBuffer.allocate(Long.BYTES);
+            for (String kind : new TreeMap<>(fingerprints).keySet()) {
+                digest.update(kind.getBytes(StandardCharsets.UTF_8));
+                for (Map.Entry<String, Long> item : new TreeMap<>(fingerprints.get(kind)).entrySet()) {
+                    digest.update(item.getKey().getBytes(StandardCharsets.UTF_8));
+                    digest.update(entry.clear().putLong(item.getValue()).array());
+                }
+            }
+            // positive, so it reads the same as a query parameter in every client
+            return ByteBuffer.wrap(digest.digest()).getLong() & Long.MAX_VALUE;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot compute catalog version", e);
+        }
+    }
+
+    private <T> Map<String, Long> fingerprints(List<T> items, Function<T, String> id) {
+        Map<String, Long> result = new HashMap<>(items.size() * 2);
+        for (T item : items) {
+            result.put(id.apply(item), fingerprint(item));
+        }
+        return result;
+    }
+
+    private long fingerprint(Object item) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(fingerprintWriter.writeValueAsBytes(item));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Cannot fingerprint catalog entry", e);
+        }
+    }
+
+    private static <T> List<T> changedSince(List<T> items, Function<T, String> id, Version base,
+                                            Map<String, Map<String, Long>> fingerprints, String kind) {
+        Map<String, Long> before = base.fingerprints.get(kind);
+        Map<String, Long> now = fingerprints.get(kind);
+        return items.stream()
+                .filter(item -> !Objects.equals(before.get(id.apply(item)), now.get(id.apply(item))))
+                .collect(Collectors.toList());
+    }
+
+    private static List<String> removedSince(Map<String, Long> before, Map<String, Long> now) {
+        return before.keySet().stream()
+                .filter(id -> !now.containsKey(id))
+                .collect(Collectors.toList());
+    }
+
+    private static String etag(long version, Long since, Long urlsExpireAt) {
+        StringBuilder etag = new StringBuilder("\"");
+        if (since != null) {
+            etag.append(since).append('-');
+        }
+        etag.append(version);
+        if (urlsExpireAt != null) {
+            etag.append('-').append(urlsExpireAt);
+        }
+        return etag.append('"').toString();
+    }
+
+    private byte[] gzip(CatalogDto catalog) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, catalog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot serialize catalog", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // both proxy URLs are derived from the Drive id and carry the signature, which changes every window
+    @JsonIgnoreProperties({"url", "thumbnailUrl"})
+    private abstract static class WithoutUrl {
+    }
+
+    private static final class Version {
+        private final long version;
+        private final Map<String, Map<String, Long>> fingerprints;
+
+        Version(long version, Map<String, Map<String, Long>> fingerprints) {
+            this.version = version;
+            this.fingerprints = fingerprints;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Long urlsExpireAt;
+        private final Map<String, Map<String, Long>> fingerprints;
+        private final List<Version> history;
+        private final Buffer manifest;
+        private final Map<Long, Buffer> deltas;
+
+        Snapshot(long version, Long urlsExpireAt, Map<String, Map<String, Long>> fingerprints, List<Version> history,
+                 Buffer manifest, Map<Long, Buffer> deltas) {
+            this.version = version;
+            this.urlsExpireAt = urlsExpireAt;
+            this.fingerprints = fingerprints;
+            this.history = history;
+            this.manifest = manifest;
+            this.deltas = deltas;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.blog.service.impl;
+
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.model.Clip;
+import com.example.blog.repository.ClipRepository;
+import com.example.blog.service.ClipFastStartService;
+import com.example.blog.service.DerivedMediaExecutor;
+import com.example.blog.service.GgDriveService;
+import com.example.blog.service.LocalMediaCache;
+import com.example.blog.util.Mp4FastStart;
+import com.example.blog.util.TextUtil;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Keeps a fast-start copy (moov before mdat, see Mp4FastStart) of every synced clip whose Drive file
+ * has its index at the end, and hands it to the media proxy, which then serves byte ranges from local disk.
+ * Clips that are already fast-start (or too large, or unreadable) only get a marker, so the proxy keeps
+ * streaming them from Drive.
+ * Built after a clip sync, for new clips, and on the first proxied request for a clip without an entry.
+ */
+@Service
+@Log4j2
+public class ClipFastStartServiceImpl implements ClipFastStartService, DisposableBean {
+
+    private static final String AREA = "clips";
+    private static final String FAST_START = "faststart.mp4";
+    private static final String UNCHANGED = "unchanged";
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private final ClipRepository clipRepository;
+    private final GgDriveService ggDriveService;
+    private final LocalMediaCache mediaCache;
+    private final DerivedMediaExecutor executor;
+    private final boolean enabled;
+    private final long maxSourceBytes;
+
+    public ClipFastStartServiceImpl(ClipRepository clipRepository,
+                                    GgDriveService ggDriveService,
+                                    LocalMediaCache mediaCache,
+                                    @Value("${clips.fast-start.enabled:false}") boolean enabled,
+                                    @Value("${clips.fast-start.max-source-mb:2048}") long maxSourceMb,
+                                    @Value("${clips.fast-start.threads:1}") int threads,
+                                    @Value("${clips.fast-start.queue-capacity:256}") int queueCapacity) {
+        this.clipRepository = clipRepository;
+        this.ggDriveService = ggDriveService;
+        this.mediaCache = mediaCache;
+        this.enabled = enabled;
+        this.maxSourceBytes = maxSourceMb * 1024L * 1024L;
+        this.executor = new DerivedMediaExecutor("clip-faststart", threads, queueCapacity);
+    }
+
+    @Async
+    @EventListener
+    public void onSyncCompleted(SyncCompletedEvent event) {
+        if (enabled && SyncCompletedEvent.CLIPS.equals(event.getKind())) {
+            clipRepository.findAll().forEach(clip -> scheduleIfMissing(driveId(clip)));
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (event.getIds() == null) {
+            return;
+        }
+        if (enabled && ChangeEvent.CLIP_ADDED.equals(event.getType())) {
+            clipRepository.findAllById(event.getIds()).forEach(clip -> scheduleIfMissing(driveId(clip)));
+        } else if (ChangeEvent.CLIP_REMOVED.equals(event.getType())) {
+            // clip ids are their Drive ids
+            for (String id : event.getIds()) {
+                if (mediaCache.isValidKey(id)) {
+                    mediaCache.delete(mediaCache.entry(AREA, id));
+                }
+            }
+        }
+    }
+
+    @Override
+    public Path getFastStart(String driveId) {
+        if (!enabled || !mediaCache.isValidKey(driveId)) {
+            return null;
+        }
+        Path entry = mediaCache.entry(AREA, driveId);
+        Path file = entry.resolve(FAST_START);
+        if (Files.isRegularFile(file)) {
+            return file;
+        }
+        if (!Files.exists(entry)) {
+            executor.submit(driveId, () -> {
+                // clip ids are their Drive ids; anything else the proxy serves is not cached
+                if (clipRepository.existsById(driveId)) {
+                    generate(driveId);
+                }
+            });
+        }
+        return null;
+    }
+
+    private static String driveId(Clip clip) {
+        return clip.getDriveId() != null ? clip.getDriveId() : TextUtil.extractDriveId(clip.getUrl());
+    }
+
+    private void scheduleIfMissing(String driveId) {
+        if (mediaCache.isValidKey(driveId) && !Files.exists(mediaCache.entry(AREA, driveId))) {
+            executor.submit(driveId, () -> generate(driveId));
+        }
+    }
+
+    private void generate(String driveId) throws IOException {
+        long started = System.nanoTime();
+        Path work = mediaCache.newWorkDirectory(AREA);
+        try {
+            Path source = work.resolve("source.mp4");
+            boolean tooLarge;
+            try (InputStream in = ggDriveService.getFileContent(driveId);
+                 OutputStream out = Files.newOutputStream(source)) {
+                tooLarge = copy(in, out) > maxSourceBytes;
+            }
+            boolean rewritten = false;
+            if (tooLarge) {
+                log.info("Clip {} is over {} bytes, streaming it from Drive", driveId, maxSourceBytes);
+            } else {
+                try {
+                    rewritten = Mp4FastStart.rewrite(source, work.resolve(FAST_START));
+                } catch (IOException e) {
+                    log.warn("Clip {} is not a readable MP4 ({}), streaming it from Drive", driveId, e.getMessage());
+                }
+            }
+            Files.delete(source);
+            if (!rewritten) {
+                Files.createFile(work.resolve(UNCHANGED));
+            }
+            mediaCache.publish(work, mediaCache.entry(AREA, driveId));
+            log.info("Clip {} {} in {} ms", driveId, rewritten ? "rewritten to fast start" : "left unchanged",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            mediaCache.delete(work);
+        }
+    }
+
+    /*
+     * Stops one buffer past maxSourceBytes, so an oversized clip is not downloaded in full
+     */
+    private long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long total = 0;
+        int read;
+        while (total <= maxSourceBytes && (read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
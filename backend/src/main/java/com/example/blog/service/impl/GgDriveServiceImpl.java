@@ -4,38 +4,60 @@ import com.example.blog.service.GgDriveService;
 import com.example.blog.dto.ClipDto;
 import com.example.blog.enums.Ethnic;
 import com.example.blog.enums.ImageType;
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.metrics.AppMetrics;
 import com.example.blog.model.Image;
 import com.example.blog.model.Clip;
 import com.example.blog.repository.ClipRepository;
 import com.example.blog.repository.ImageRepository;
+import com.example.blog.service.MediaUrlResolver;
+import com.example.blog.util.TextUtil;
 import com.example.blog.dto.ImageDto;
 import com.google.api.client.http.FileContent;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import com.google.api.services.drive.Drive;
 import com.google.api.services.drive.model.File;
 import com.google.api.services.drive.model.FileList;
-import com.google.api.services.drive.model.Permission;
+import org.bson.Document;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
-import java.util.regex.Matcher;
 
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -48,6 +70,16 @@ public class GgDriveServiceImpl implements GgDriveService {
     private final Drive googleDrive;
     private final ImageRepository imageRepository;
     private final ClipRepository clipRepository;
+    private final MediaUrlResolver mediaUrlResolver;
+    private final AppMetrics appMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MongoTemplate mongoTemplate;
+    private final AsyncTaskExecutor applicationTaskExecutor;
+
+    /* one running sync per partition and instance; a second request while one runs is skipped */
+    private final Map<Ethnic, ReentrantLock> imageSyncLocks = Arrays.stream(Ethnic.values()).collect(Collectors.toMap(
+            ethnic -> ethnic, ethnic -> new ReentrantLock(), (a, b) -> a, () -> new EnumMap<>(Ethnic.class)));
+    private final ReentrantLock clipSyncLock = new ReentrantLock();
 
     @Value("${gdrive.folder-3d}")
     private String folder3d;
@@ -70,6 +102,9 @@ public class GgDriveServiceImpl implements GgDriveService {
     private static final int MAX_PAGE_SIZE = 200;
     private static final int MAX_UPLOAD_RETRIES_TIMES = 4;
     private static final String APP_PROPERTIES_TYPE = "type";
+    private static final String FOLDER_MIME_TYPE = "application/vnd.google-apps.folder";
+    /* a sync removing more documents than this reports only their count */
+    private static final int MAX_REMOVED_IDS = 1000;
 
     private static final Set<String> IMAGE_TYPES = Set.of(
         MediaType.IMAGE_JPEG_VALUE,
@@ -84,11 +119,11 @@ public class GgDriveServiceImpl implements GgDriveService {
     );
 
     @Override
-    public String uploadImage(java.io.File image, ImageDto imageDto) throws Exception {
+    public File uploadImage(java.io.File image, ImageDto imageDto) throws Exception {
         return uploadImageWithRetry(image, imageDto, MAX_UPLOAD_RETRIES_TIMES);
     }
     
-    private String uploadImageWithRetry(java.io.File image, ImageDto imageDto, int maxRetries) throws Exception {
+    private File uploadImageWithRetry(java.io.File image, ImageDto imageDto, int maxRetries) throws Exception {
         Exception lastException = null;
         
         for (int attempt = 1; attempt <= maxRetries; attempt++) {
@@ -101,6 +136,7 @@ public class GgDriveServiceImpl implements GgDriveService {
                         attempt, imageDto.getName(), e.getMessage());
                 
                 if (attempt < maxRetries) {
+                    appMetrics.countUploadRetry("timeout");
                     long waitTime = attempt * 3000; // Exponential backoff: 3s, 6s, 9s, 12s
                     log.info("Retrying upload in {}ms...", waitTime);
                     Thread.sleep(waitTime);
@@ -108,6 +144,7 @@ public class GgDriveServiceImpl implements GgDriveService {
             } catch (Exception e) {
                 lastException = e;
                 if (attempt < maxRetries) {
+                    appMetrics.countUploadRetry("error");
                     long waitTime = attempt * 1000; // Shorter wait for non-timeout errors
                     log.info("Retrying upload in {}ms...", waitTime);
                     Thread.sleep(waitTime);
@@ -120,7 +157,7 @@ public class GgDriveServiceImpl implements GgDriveService {
                            (lastException != null ? lastException.getMessage() : "Unknown error"));
     }
     
-    private String performImageUpload(java.io.File image, ImageDto imageDto) throws Exception {
+    private File performImageUpload(java.io.File image, ImageDto imageDto) throws Exception {
         Drive driveService = googleDrive;
 
         // Detect MIME type with fallback for GLB
@@ -165,38 +202,32 @@ public class GgDriveServiceImpl implements GgDriveService {
         log.info("Starting file upload to Google Drive for: {} (size: {} bytes)", 
                 imageDto.getName(), image.length());
 
-        File file = driveService.files().create(fileMetadata, mediaContent)
-                .setFields("id, parents")
-                .execute();
+        Drive.Files.Create create = driveService.files().create(fileMetadata, mediaContent)
+                .setFields("id, parents, mimeType");
+        File file = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.create", create::execute);
 
         log.info("File uploaded successfully with ID: {}", file.getId());
 
-        // Make file publicly readable
-        Permission anyoneReader = new Permission()
-                .setType("anyone")
-                .setRole("reader");
-        driveService.permissions().create(file.getId(), anyoneReader)
-                .setFields("id")
-                .execute();
-
-        // Return URL in the same format as collectFilesRecursively
-        return "http://localhost:9090/api/ggdrive/proxy/drive?id=" + file.getId() + "&name=" + fileMetadata.getName();
+        if (file.getMimeType() == null) {
+            file.setMimeType(mimeType);
+        }
+        return file;
     }
 
     @Override
     public Page<ImageDto> get3dImages(Pageable pageable) throws IOException {
         String query = "'" + folder3d + "' in parents and (mimeType='image/jpeg' or mimeType='image/png' or mimeType='image/webp' or mimeType='model/gltf-binary') and trashed=false";
-        FileList result = googleDrive.files().list()
+        Drive.Files.List request = googleDrive.files().list()
                 .setQ(query)
                 .setFields("files(id, name, webViewLink, thumbnailLink, description)")
-                .setPageSize(MAX_PAGE_SIZE) // Fetch up to 100 files
-                .execute();
+                .setPageSize(MAX_PAGE_SIZE); // Fetch up to 100 files
+        FileList result = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.list", request::execute);
         List<ImageDto> allImages = result.getFiles().stream()
             .map(file -> ImageDto.builder()
                 .id(file.getId())
                 .name(file.getName())
                 .url(file.getWebViewLink())
-                .thumbnailUrl(file.getThumbnailLink() != null ? file.getThumbnailLink() : convertToThumbnailUrl(file.getWebViewLink()))
+                .thumbnailUrl(mediaUrlResolver.resolveThumbnail(file.getId()))
                 .note(file.getDescription())
                 .type(ImageType.MODEL_3D)
                 .build())
@@ -207,6 +238,17 @@ public class GgDriveServiceImpl implements GgDriveService {
         return new PageImpl<>(pageContent, pageable, allImages.size());
     }
 
+    @Override
+    public List<String> get3dModelIds() throws IOException {
+        String query = "'" + folder3d + "' in parents and mimeType='model/gltf-binary' and trashed=false";
+        Drive.Files.List request = googleDrive.files().list()
+                .setQ(query)
+                .setFields("files(id)")
+                .setPageSize(MAX_PAGE_SIZE);
+        FileList result = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.list", request::execute);
+        return result.getFiles().stream().map(File::getId).collect(Collectors.toList());
+    }
+
     @Override
     public Page<ImageDto> get360Images(Pageable pageable) throws IOException {
         List<ImageDto> allImages = new ArrayList<>();
@@ -217,49 +259,95 @@ public class GgDriveServiceImpl implements GgDriveService {
         return new PageImpl<>(pageContent, pageable, allImages.size());
     }
 
+    @Override
+    public List<String> get360ImageIds() throws IOException {
+        List<ImageDto> images = new ArrayList<>();
+        collectImagesRecursively(folder360, images);
+        return images.stream().map(ImageDto::getId).collect(Collectors.toList());
+    }
+
     @Override
     public void syncGoogleDriveImages(Ethnic ethnic) throws IOException { 
         if (ethnic == null) {
-            collectFilesRecursively(Ethnic.EDE, folderEde);
-            collectFilesRecursively(Ethnic.JRAI, folderJrai);
-            collectFilesRecursively(Ethnic.MNONG, folderMnong);
+            // each folder only touches its own ethnic partition (see syncFolder), so they run side by side;
+            // Drive calls still share the DriveRateLimiter background budget
+            awaitAll(List.of(
+                    syncImageFolderAsync(Ethnic.EDE, folderEde),
+                    syncImageFolderAsync(Ethnic.JRAI, folderJrai),
+                    syncImageFolderAsync(Ethnic.MNONG, folderMnong)));
         } else if (ethnic.equals(Ethnic.JRAI)) {
-            collectFilesRecursively(ethnic, folderJrai);
+            syncImageFolder(ethnic, folderJrai);
         } else if (ethnic.equals(Ethnic.MNONG)) {
-            collectFilesRecursively(ethnic, folderMnong);
+            syncImageFolder(ethnic, folderMnong);
         } else {
-            collectFilesRecursively(ethnic, folderEde);
+            syncImageFolder(ethnic, folderEde);
+        }
+    }
+
+    private void syncImageFolder(Ethnic ethnic, String folderId) throws IOException {
+        ReentrantLock lock = imageSyncLocks.get(ethnic);
+        if (!lock.tryLock()) {
+            log.info("Image sync for {} is already running, skipping this one", ethnic);
+            return;
+        }
+        try {
+            appMetrics.recordSync(SyncCompletedEvent.IMAGES, ethnic, () -> collectFilesRecursively(ethnic, folderId));
+        } finally {
+            lock.unlock();
+        }
+        eventPublisher.publishEvent(new SyncCompletedEvent(SyncCompletedEvent.IMAGES, ethnic));
+    }
+
+    private CompletableFuture<Void> syncImageFolderAsync(Ethnic ethnic, String folderId) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                syncImageFolder(ethnic, folderId);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, applicationTaskExecutor);
+    }
+
+    /*
+     * Waits for every run, so one failing folder does not cut the others short; the first failure is rethrown
+     * with the rest attached as suppressed
+     */
+    private static void awaitAll(List<CompletableFuture<Void>> runs) throws IOException {
+        IOException failure = null;
+        for (CompletableFuture<Void> run : runs) {
+            try {
+                run.join();
+            } catch (CompletionException e) {
+                IOException cause = e.getCause() instanceof UncheckedIOException unchecked
+                        ? unchecked.getCause()
+                        : new IOException(e.getCause());
+                if (failure == null) {
+                    failure = cause;
+                } else {
+                    failure.addSuppressed(cause);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
         }
     }
 
     @Override
     public Page<ClipDto> getListVideoMp4(Pageable pageable) throws IOException {
         String query = "'" + folderVideo + "' in parents and mimeType='video/mp4' and trashed=false";
-        FileList result = googleDrive.files().list()
+        Drive.Files.List request = googleDrive.files().list()
                 .setQ(query)
                 .setFields("files(id, name, webViewLink, thumbnailLink, description)")
-                .setPageSize(MAX_PAGE_SIZE) // Fetch up to 100 files
-                .execute();
+                .setPageSize(MAX_PAGE_SIZE); // Fetch up to 100 files
+        FileList result = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.list", request::execute);
         List<ClipDto> allClips = result.getFiles().stream()
-            .map(file -> {
-                try {
-                    // Make file publicly readable
-                    Permission anyoneReader = new Permission()
-                            .setType("anyone")
-                            .setRole("reader");
-                    googleDrive.permissions().create(file.getId(), anyoneReader)
-                            .setFields("id")
-                            .execute();
-                } catch (Exception e) {
-                    // Ignore if already public
-                }
-                return ClipDto.builder()
-                    .name(file.getName())
-                    .url("http://localhost:9090/api/ggdrive/proxy/drive?id=" + file.getId() + "&name=" + file.getName())
-                    .thumbnailUrl(file.getThumbnailLink() != null ? file.getThumbnailLink() : convertToThumbnailUrl(file.getWebViewLink()))
-                    .note(file.getDescription())
-                    .build();
-            })
+            .map(file -> ClipDto.builder()
+                .name(file.getName())
+                .url(mediaUrlResolver.resolve(file.getId(), file.getName()))
+                .thumbnailUrl(mediaUrlResolver.resolveThumbnail(file.getId()))
+                .note(file.getDescription())
+                .build())
             .collect(Collectors.toList());
         int start = (int) pageable.getOffset();
         int end = Math.min(start + pageable.getPageSize(), allClips.size());
@@ -269,32 +357,33 @@ public class GgDriveServiceImpl implements GgDriveService {
 
     @Override
     public InputStream getFileContent(String fileId) throws IOException {
-        return googleDrive.files().get(fileId).executeMediaAsInputStream();
+        Drive.Files.Get request = googleDrive.files().get(fileId);
+        return appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.get.media", request::executeMediaAsInputStream);
     }
     
     @Override
-    public String getThumbnailUrlForFile(String fileUrl) throws IOException {
-        // Extract file ID from URL
-        String fileId = null;
-        Pattern pattern = Pattern.compile("[-\\w]{25,}");
-        Matcher matcher = pattern.matcher(fileUrl);
-        if (matcher.find()) {
-            fileId = matcher.group();
-        }
-        
-        if (fileId == null) {
-            return convertToThumbnailUrl(fileUrl);
-        }
-        
+    public String getThumbnailUrlForFile(String fileId) throws IOException {
         // Get file details from Google Drive API to get thumbnailLink
-        File file = googleDrive.files().get(fileId)
-                .setFields("thumbnailLink")
-                .execute();
+        Drive.Files.Get request = googleDrive.files().get(fileId)
+                .setFields("thumbnailLink");
+        File file = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.get", request::execute);
         
         // Use the same logic as collectFilesRecursively
         return file.getThumbnailLink() != null 
                 ? file.getThumbnailLink() 
-                : convertToThumbnailUrl(fileUrl);
+                : TextUtil.driveThumbnailUrl(fileId);
+    }
+
+    @Override
+    public InputStream getThumbnailContent(String fileId) throws IOException {
+        Drive.Files.Get request = googleDrive.files().get(fileId).setFields("thumbnailLink");
+        File file = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.get", request::execute);
+        if (file.getThumbnailLink() == null) {
+            return null;
+        }
+        // the link is short-lived and, for a private file, needs the same credentials as the API
+        HttpRequest thumbnail = googleDrive.getRequestFactory().buildGetRequest(new GenericUrl(file.getThumbnailLink()));
+        return appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "thumbnail", () -> thumbnail.execute().getContent());
     }
 
     @Override
@@ -304,7 +393,16 @@ public class GgDriveServiceImpl implements GgDriveService {
 
     @Override
     public void syncGoogleDriveClips(Ethnic ethnic) throws IOException {
-        collectClipsRecursively(ethnic, folderVideo);
+        if (!clipSyncLock.tryLock()) {
+            log.info("Clip sync is already running, skipping this one");
+            return;
+        }
+        try {
+            appMetrics.recordSync(SyncCompletedEvent.CLIPS, ethnic, () -> collectClipsRecursively(ethnic, folderVideo));
+        } finally {
+            clipSyncLock.unlock();
+        }
+        eventPublisher.publishEvent(new SyncCompletedEvent(SyncCompletedEvent.CLIPS, ethnic));
     }
 
     @Override
@@ -313,159 +411,143 @@ public class GgDriveServiceImpl implements GgDriveService {
     }
 
     private void collectFilesRecursively(Ethnic ethnic, String folderId) throws IOException {
-        // 1️⃣ Lấy tất cả file từ Google Drive
-        List<File> driveFiles = listFilesInFolder(folderId);
-
-        // 2️⃣ Lấy danh sách ID từ MongoDB 
-        Set<String> existingIds = new HashSet<>(imageRepository.findAllIds());
-
-        // 3️⃣ Gom ID hiện có trên Drive
-        Set<String> driveIds = driveFiles.stream()
-                .filter(f -> IMAGE_TYPES.contains(f.getMimeType()))
-                .map(File::getId)
-                .collect(Collectors.toSet());
-
-        // 4️⃣ Tìm ID bị xóa khỏi Drive → cần xóa khỏi DB
-        Set<String> removedIds = existingIds.stream()
-                .filter(id -> !driveIds.contains(id))
-                .collect(Collectors.toSet());
+        syncFolder(Image.class, folderId, Criteria.where("ethnic").is(ethnic), IMAGE_TYPES,
+                (file, update) -> update
+                        .set("name", file.getName())
+                        .set("ethnic", ethnic)
+                        .set("driveId", file.getId())
+                        .set("mimeType", file.getMimeType())
+                        .set("thumbnailUrl", thumbnailOf(file))
+                        .set("type", imageTypeOf(file))
+                        .set("note", file.getDescription())
+                        .set("createdAt", Instant.ofEpochMilli(file.getCreatedTime().getValue()))
+                        .set("contentHash", file.getMd5Checksum()),
+                ChangeEvent.IMAGE_ADDED, ChangeEvent.IMAGE_REMOVED, ethnic);
+    }
 
-        // 5️⃣ Chuẩn bị danh sách ảnh mới hoặc cập nhật
-        List<Image> upsertImages = new ArrayList<>();
-
-        for (File file : driveFiles) {
-            if (!IMAGE_TYPES.contains(file.getMimeType())) continue;
-
-            ImageType imageType = ImageType.NORMAL;
-            if ("model/gltf-binary".equals(file.getMimeType())) {
-                imageType = ImageType.MODEL_3D;
-            } else if (file.getName().contains("360")) {
-                imageType = ImageType.PHOTO_360;
-            } else if (file.getAppProperties() != null &&
-                       file.getAppProperties().containsKey("type")) {
-                try {
-                    imageType = ImageType.valueOf(file.getAppProperties().get("type"));
-                } catch (IllegalArgumentException ignored) {}
-            }
+    private void collectClipsRecursively(Ethnic ethnic, String folderId) throws IOException {
+        // every clip lives in the one video folder, so the whole collection is the partition
+        syncFolder(Clip.class, folderId, new Criteria(), VIDEO_TYPES,
+                (file, update) -> update
+                        .set("name", file.getName())
+                        .set("ethnic", ethnic)
+                        .set("driveId", file.getId())
+                        .set("mimeType", file.getMimeType())
+                        .set("thumbnailUrl", thumbnailOf(file))
+                        .set("note", file.getDescription())
+                        .set("createdAt", Instant.ofEpochMilli(file.getCreatedTime().getValue())),
+                ChangeEvent.CLIP_ADDED, ChangeEvent.CLIP_REMOVED, ethnic);
+    }
 
-            Image image = new Image();
-            image.setId(file.getId()); // dùng ID của Drive làm _id Mongo
-            image.setName(file.getName());
-            image.setEthnic(ethnic);
-            image.setUrl("http://localhost:9090/api/ggdrive/proxy/drive?id=" +
-                         file.getId() + "&name=" + file.getName());
-            image.setThumbnailUrl(file.getThumbnailLink() != null
-                    ? file.getThumbnailLink()
-                    : convertToThumbnailUrl(file.getWebViewLink()));
-            image.setType(imageType);
-            image.setNote(file.getDescription());
-            image.setCreatedAt(Instant.ofEpochMilli(file.getCreatedTime().getValue()));
-
-            upsertImages.add(image);
+    /*
+     * Sync generation: each Drive page is bulk-upserted (Drive id as _id) with syncedAt set to the Mongo server time,
+     * then every document of the partition last synced before this run started was not listed and goes in one
+     * deleteMany on the stale condition itself (no id list). Both timestamps come from the server clock, so a run on
+     * another instance never deletes what a later run listed, and an older run's stamps never shield a file a newer
+     * run no longer sees. Memory is one Drive page plus the added ids and at most MAX_REMOVED_IDS removed ones, not
+     * the catalog. Documents created after the run started (an upload racing the sync) are left for the next run.
+     */
+    private void syncFolder(Class<?> type, String folderId, Criteria partition, Set<String> mimeTypes,
+                            BiConsumer<File, Update> fields, String addedType, String removedType,
+                            Ethnic ethnic) throws IOException {
+        Date startedAt = serverTime();
+        List<String> addedIds = new ArrayList<>();
+        int synced = 0;
+
+        Deque<String> folders = new ArrayDeque<>(List.of(folderId));
+        while (!folders.isEmpty()) {
+            String current = folders.pop();
+            String pageToken = null;
+            do {
+                FileList page = listFilesPage(current, pageToken);
+                BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+                int upserts = 0;
+                for (File file : page.getFiles()) {
+                    if (FOLDER_MIME_TYPE.equals(file.getMimeType())) {
+                        folders.push(file.getId());
+                    } else if (mimeTypes.contains(file.getMimeType())) {
+                        Update update = new Update().currentDate("syncedAt");
+                        fields.accept(file, update);
+                        bulk.upsert(Query.query(Criteria.where("_id").is(file.getId())), update);
+                        upserts++;
+                    }
+                }
+                if (upserts > 0) {
+                    bulk.execute().getUpserts()
+                            .forEach(upsert -> addedIds.add(upsert.getId().asString().getValue()));
+                    synced += upserts;
+                }
+                pageToken = page.getNextPageToken();
+            } while (pageToken != null);
         }
 
-        // 6️⃣ Thực hiện xóa các ảnh không còn trên Drive
-        if (!removedIds.isEmpty()) {
-            imageRepository.deleteAllById(removedIds);
+        Criteria stale = new Criteria().andOperator(partition,
+                new Criteria().orOperator(Criteria.where("syncedAt").lt(startedAt), Criteria.where("syncedAt").is(null)),
+                new Criteria().orOperator(Criteria.where("createdAt").lt(startedAt), Criteria.where("createdAt").is(null)));
+        // the ids are only read to tell listeners (derived media cleanup) what went; a mass removal sends just its count
+        Query staleQuery = Query.query(stale);
+        staleQuery.fields().include("_id");
+        List<String> removedIds = mongoTemplate.find(staleQuery.limit(MAX_REMOVED_IDS + 1), Document.class,
+                        mongoTemplate.getCollectionName(type)).stream()
+                .map(document -> document.get("_id").toString())
+                .collect(Collectors.toList());
+        long removed = removedIds.isEmpty() ? 0 : mongoTemplate.remove(Query.query(stale), type).getDeletedCount();
+        if (removed > 0) {
+            // a run that started meanwhile may have listed some of them again, so the ids only stand if the counts agree
+            eventPublisher.publishEvent(removed == removedIds.size() && removed <= MAX_REMOVED_IDS
+                    ? ChangeEvent.of(removedType, removedIds, ethnic)
+                    : ChangeEvent.of(removedType, removed, ethnic));
         }
-
-        // 7️⃣ Lưu hoặc cập nhật các ảnh mới
-        imageRepository.saveAll(upsertImages);
-        log.info("Done sync " + upsertImages.size() + " images from Google Drive.");
+        if (!addedIds.isEmpty()) {
+            eventPublisher.publishEvent(ChangeEvent.of(addedType, addedIds, ethnic));
+        }
+        log.info("Done sync {} {} from Google Drive ({} added, {} removed).",
+                synced, type.getSimpleName(), addedIds.size(), removed);
     }
 
-    // --- Lấy toàn bộ file trong folder (bao gồm phân trang & folder con)
-    private List<File> listFilesInFolder(String folderId) throws IOException {
-        List<File> allFiles = new ArrayList<>();
-        String query = "'" + folderId + "' in parents and trashed=false";
-        String nextPageToken = null;
-
-        do {
-            Drive.Files.List request = googleDrive.files().list()
-                    .setQ(query)
-                    .setFields("nextPageToken, files(id, name, mimeType, description, webViewLink, thumbnailLink, createdTime, appProperties)")
-                    .setPageSize(MAX_PAGE_SIZE)
-                    .setOrderBy("createdTime desc, name asc");
-
-            if (nextPageToken != null) {
-                request.setPageToken(nextPageToken);
-            }
-
-            FileList fileList = request.execute();
-            allFiles.addAll(fileList.getFiles());
-            nextPageToken = fileList.getNextPageToken();
-
-        } while (nextPageToken != null);
-
-        // Quét folder con (nếu có)
-        for (File subfolder : allFiles.stream()
-                .filter(f -> "application/vnd.google-apps.folder".equals(f.getMimeType()))
-                .collect(Collectors.toList())) {
-            allFiles.addAll(listFilesInFolder(subfolder.getId()));
+    /*
+     * Server clock for the sync generation. hello needs MongoDB 4.4.2+ (and 5.0+ without the legacy alias);
+     * older servers only answer isMaster, which reports the same localTime
+     */
+    private Date serverTime() {
+        try {
+            return mongoTemplate.executeCommand(new Document("hello", 1)).getDate("localTime");
+        } catch (DataAccessException e) {
+            return mongoTemplate.executeCommand(new Document("isMaster", 1)).getDate("localTime");
         }
-
-        return allFiles;
     }
 
-    private void collectClipsRecursively(Ethnic ethnic, String folderId) throws IOException {
-        // 1️⃣ Lấy tất cả file từ Google Drive
-        List<File> driveFiles = listFilesInFolder(folderId);
-
-        // 2️⃣ Lấy danh sách ID từ MongoDB 
-        Set<String> existingIds = new HashSet<>(clipRepository.findAllIds());
-
-        // 3️⃣ Gom ID hiện có trên Drive
-        Set<String> driveIds = driveFiles.stream()
-                .filter(f -> VIDEO_TYPES.contains(f.getMimeType()))
-                .map(File::getId)
-                .collect(Collectors.toSet());
-
-        // 4️⃣ Tìm ID bị xóa khỏi Drive → cần xóa khỏi DB
-        Set<String> removedIds = existingIds.stream()
-                .filter(id -> !driveIds.contains(id))
-                .collect(Collectors.toSet());
-
-        // 5️⃣ Chuẩn bị danh sách clip mới hoặc cập nhật
-        List<Clip> upsertClips = new ArrayList<>();
+    private FileList listFilesPage(String folderId, String pageToken) throws IOException {
+        Drive.Files.List request = googleDrive.files().list()
+                .setQ("'" + folderId + "' in parents and trashed=false")
+                .setFields("nextPageToken, files(id, name, mimeType, description, webViewLink, thumbnailLink, createdTime, appProperties, md5Checksum)")
+                .setPageSize(MAX_PAGE_SIZE)
+                .setOrderBy("createdTime desc, name asc");
+        if (pageToken != null) {
+            request.setPageToken(pageToken);
+        }
+        return appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.list", request::execute);
+    }
 
-        for (File file : driveFiles) {
-            if (!VIDEO_TYPES.contains(file.getMimeType())) continue;
+    private String thumbnailOf(File file) {
+        return file.getThumbnailLink() != null ? file.getThumbnailLink() : TextUtil.driveThumbnailUrl(file.getWebViewLink());
+    }
 
+    private static ImageType imageTypeOf(File file) {
+        if ("model/gltf-binary".equals(file.getMimeType())) {
+            return ImageType.MODEL_3D;
+        }
+        if (file.getName().contains("360")) {
+            return ImageType.PHOTO_360;
+        }
+        if (file.getAppProperties() != null && file.getAppProperties().containsKey(APP_PROPERTIES_TYPE)) {
             try {
-                // Make file publicly readable
-                Permission anyoneReader = new Permission()
-                        .setType("anyone")
-                        .setRole("reader");
-                googleDrive.permissions().create(file.getId(), anyoneReader)
-                        .setFields("id")
-                        .execute();
-            } catch (Exception e) {
-                // Ignore if already public
+                return ImageType.valueOf(file.getAppProperties().get(APP_PROPERTIES_TYPE));
+            } catch (IllegalArgumentException ignored) {
+                // unknown type in appProperties: treat as a normal image
             }
-
-            Clip clip = new Clip();
-            clip.setId(file.getId()); // dùng ID của Drive làm _id Mongo
-            clip.setName(file.getName());
-            clip.setEthnic(ethnic);
-            clip.setUrl("http://localhost:9090/api/ggdrive/proxy/drive?id=" +
-                       file.getId() + "&name=" + file.getName());
-            clip.setThumbnailUrl(file.getThumbnailLink() != null
-                    ? file.getThumbnailLink()
-                    : convertToThumbnailUrl(file.getWebViewLink()));
-            clip.setNote(file.getDescription());
-            clip.setCreatedAt(Instant.ofEpochMilli(file.getCreatedTime().getValue()));
-
-            upsertClips.add(clip);
         }
-
-        // 6️⃣ Thực hiện xóa các clip không còn trên Drive
-        if (!removedIds.isEmpty()) {
-            clipRepository.deleteAllById(removedIds);
-        }
-
-        // 7️⃣ Lưu hoặc cập nhật các clip mới
-        clipRepository.saveAll(upsertClips);
-        log.info("Done sync " + upsertClips.size() + " clips from Google Drive.");
+        return ImageType.NORMAL;
     }
 
     private void collectImagesRecursively(String folderId, List<ImageDto> images) throws IOException {
@@ -487,10 +569,10 @@ public class GgDriveServiceImpl implements GgDriveService {
                 request.setPageToken(nextPageToken);
             }
             
-            FileList result = request.execute();
+            FileList result = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.list", request::execute);
             
             for (File file : result.getFiles()) {
-                if (file.getMimeType().equals("application/vnd.google-apps.folder")) {
+                if (FOLDER_MIME_TYPE.equals(file.getMimeType())) {
                     collectImagesRecursively(file.getId(), images);
                 } else if (IMAGE_TYPES.contains(file.getMimeType())) {
                     // Check if this file has already been processed to prevent duplicates
@@ -498,23 +580,11 @@ public class GgDriveServiceImpl implements GgDriveService {
                         continue;
                     }
                     
-                    try {
-                        // Make file publicly readable
-                        Permission anyoneReader = new Permission()
-                                .setType("anyone")
-                                .setRole("reader");
-                        googleDrive.permissions().create(file.getId(), anyoneReader)
-                                .setFields("id")
-                                .execute();
-                    } catch (Exception e) {
-                        // Ignore if already public
-                    }
-                    
                     ImageDto imageDto = ImageDto.builder()
                         .id(file.getId())
                         .name(file.getName())
-                        .url("http://localhost:9090/api/ggdrive/proxy/drive?id=" + file.getId() + "&name=" + file.getName())
-                        .thumbnailUrl(file.getThumbnailLink() != null ? file.getThumbnailLink() : convertToThumbnailUrl(file.getWebViewLink()))
+                        .url(mediaUrlResolver.resolve(file.getId(), file.getName()))
+                        .thumbnailUrl(mediaUrlResolver.resolveThumbnail(file.getId()))
                         .note(file.getDescription())
                         .createdAt(Instant.ofEpochMilli(file.getCreatedTime().getValue()))
                         .build();
@@ -534,9 +604,9 @@ public class GgDriveServiceImpl implements GgDriveService {
             log.info("Attempting to delete file with ID: {}", fileId);
             
             // Check if file exists before attempting to delete
-            File file = googleDrive.files().get(fileId)
-                    .setFields("id, name")
-                    .execute();
+            Drive.Files.Get get = googleDrive.files().get(fileId)
+                    .setFields("id, name");
+            File file = appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.get", get::execute);
             
             if (file == null) {
                 throw new IOException("File with ID " + fileId + " not found");
@@ -545,7 +615,8 @@ public class GgDriveServiceImpl implements GgDriveService {
             log.info("Found file to delete: {} (ID: {})", file.getName(), fileId);
             
             // Delete the file
-            googleDrive.files().delete(fileId).execute();
+            Drive.Files.Delete delete = googleDrive.files().delete(fileId);
+            appMetrics.recordRemoteCall(AppMetrics.CLIENT_DRIVE, "files.delete", delete::execute);
             
             log.info("Successfully deleted file: {} (ID: {})", file.getName(), fileId);
             
@@ -560,16 +631,4 @@ public class GgDriveServiceImpl implements GgDriveService {
         }
     }
 
-    public String convertToThumbnailUrl(String url) {
-        String fileId = null;
-        Pattern pattern = Pattern.compile("[-\\w]{25,}");
-        Matcher matcher = pattern.matcher(url);
-        if (matcher.find()) {
-            fileId = matcher.group();
-            // Use Google CDN URL for better compatibility and direct access
-            return "https://lh3.googleusercontent.com/drive-storage/" + fileId + "=s220";
-        }
-        return url;
-    }
-
 }
@@ -3,25 +3,39 @@ package com.example.blog.service.impl;
 import com.example.blog.dto.ImageDto;
 import com.example.blog.enums.Ethnic;
 import com.example.blog.enums.ImageType;
+import com.example.blog.event.ChangeEvent;
 import com.example.blog.mapper.ImageMapper;
 import com.example.blog.model.Image;
 import com.example.blog.repository.ImageRepository;
 import com.example.blog.service.ImageService;
+import com.google.api.services.drive.model.File;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +45,12 @@ public class ImageServiceImpl implements ImageService {
     private final GgDriveServiceImpl driveService;
     private final ImageMapper  imageMapper;
     private final ImageRepository imageRepository;
+    // Boot's @Async executor; runs on virtual threads when spring.threads.virtual.enabled=true
+    private final AsyncTaskExecutor applicationTaskExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /* uploads still in progress by ethnic + content hash; a retry of the same file waits for the first attempt */
+    private final Map<String, CompletableFuture<ImageDto>> uploadsInFlight = new ConcurrentHashMap<>();
     
     @Override
     public Page<ImageDto> getList(Ethnic ethnic, String searchQuery, String language, Pageable pageable) {
@@ -57,11 +77,90 @@ public class ImageServiceImpl implements ImageService {
         }
     }
     
+    /*
+     * Re-uploads of a file that is already in the same ethnic folder (a retry after a timeout, a double submit)
+     * return the existing image, with the name / note of the new request applied, instead of storing the bytes again.
+     * The same file for another ethnic is uploaded to that folder as its own image: images are keyed by Drive id
+     * and each ethnic folder is its own sync partition, so one document cannot be listed in two of them.
+     */
     @Override
     public ImageDto upload(MultipartFile image, ImageDto imageDto) throws Exception {
         java.io.File imageFile = java.io.File.createTempFile("upload-", image.getOriginalFilename());
-        image.transferTo(imageFile);
+        try {
+            String contentHash = receive(image, imageFile);
+            Optional<Image> existing = imageRepository.findFirstByContentHashAndEthnic(contentHash, imageDto.getEthnic());
+            if (existing.isPresent()) {
+                log.info("Upload {} has the same content as image {} of {}, not uploading it again",
+                        image.getOriginalFilename(), existing.get().getId(), imageDto.getEthnic());
+                return applyDetails(existing.get(), imageDto);
+            }
 
+            String uploadKey = imageDto.getEthnic() + ":" + contentHash;
+            CompletableFuture<ImageDto> upload = new CompletableFuture<>();
+            CompletableFuture<ImageDto> running = uploadsInFlight.putIfAbsent(uploadKey, upload);
+            if (running != null) {
+                log.info("Upload {} is already in progress, waiting for it", image.getOriginalFilename());
+                try {
+                    return running.join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof Exception cause ? cause : e;
+                }
+            }
+            try {
+                ImageDto uploaded = uploadToDrive(image, imageDto, imageFile, contentHash);
+                upload.complete(uploaded);
+                return uploaded;
+            } catch (Exception e) {
+                upload.completeExceptionally(e);
+                throw e;
+            } finally {
+                uploadsInFlight.remove(uploadKey, upload);
+            }
+        } finally {
+            imageFile.delete();
+        }
+    }
+
+    /*
+     * Name and note the admin gave with a duplicate upload replace the stored ones, as an update would
+     */
+    private ImageDto applyDetails(Image image, ImageDto request) {
+        boolean changed = false;
+        if (request.getName() != null && !request.getName().equals(image.getName())) {
+            image.setName(request.getName());
+            changed = true;
+        }
+        if (request.getNote() != null && !request.getNote().equals(image.getNote())) {
+            image.setNote(request.getNote());
+            changed = true;
+        }
+        if (!changed) {
+            return imageMapper.toDto(image);
+        }
+        Image saved = imageRepository.save(image);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.IMAGE_UPDATED, saved.getId()));
+        return imageMapper.toDto(saved);
+    }
+
+    /*
+     * Copies the multipart body to the temp file and returns the MD5 (hex) of its bytes, computed in the same pass
+     */
+    private static String receive(MultipartFile upload, java.io.File target) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (InputStream in = new DigestInputStream(upload.getInputStream(), md5);
+             OutputStream out = new FileOutputStream(target)) {
+            in.transferTo(out);
+        }
+        return HexFormat.of().formatHex(md5.digest());
+    }
+
+    private ImageDto uploadToDrive(MultipartFile image, ImageDto imageDto, java.io.File imageFile, String contentHash)
+            throws Exception {
         try {
             String imageName = imageDto.getName();
             // Determine image type based on file extension and content type
@@ -78,30 +177,33 @@ public class ImageServiceImpl implements ImageService {
             imageDto.setType(imageType);
             
             // Upload file to Google Drive
-            String url = driveService.uploadImage(imageFile, imageDto);
+            File driveFile = driveService.uploadImage(imageFile, imageDto);
             
             // Get thumbnail URL using the same logic as collectFilesRecursively
-            String thumbnailUrl = driveService.getThumbnailUrlForFile(url);
+            String thumbnailUrl = driveService.getThumbnailUrlForFile(driveFile.getId());
             
+            // Drive id doubles as _id, like synced images, so the next sync updates this document in place
             Image imageModel = Image.builder()
+                    .id(driveFile.getId())
                     .name(imageName != null ? imageName : image.getOriginalFilename())
-                    .url(url)
+                    .driveId(driveFile.getId())
+                    .mimeType(driveFile.getMimeType())
                     .thumbnailUrl(thumbnailUrl)
                     .type(imageType)
                     .note(imageDto.getNote())
                     .ethnic(imageDto.getEthnic())
                     .createdAt(Instant.now())
+                    .contentHash(contentHash)
                     .build();
             
             Image savedImage = imageRepository.save(imageModel);
             log.info("Image saved successfully with ID: {}", savedImage.getId());
+            eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.IMAGE_ADDED, List.of(savedImage.getId()), savedImage.getEthnic()));
             
             return imageMapper.toDto(savedImage);
         } catch (Exception e) {
             log.error("Failed to upload file: {} - {}", image.getOriginalFilename(), e.getMessage(), e);
             throw e;
-        } finally {
-            imageFile.delete();
         }
     }
     
@@ -145,6 +247,7 @@ public class ImageServiceImpl implements ImageService {
             image.setNote(request.getNote());
             
             Image updatedImage = imageRepository.save(image);
+            eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.IMAGE_UPDATED, id));
             
             return imageMapper.toDto(updatedImage);
         } catch (RuntimeException e) {
@@ -160,6 +263,7 @@ public class ImageServiceImpl implements ImageService {
                 // Delete from database first
                 imageRepository.deleteById(id);
                 log.info("Image deleted from database with ID: {}", id);
+                eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.IMAGE_REMOVED, id));
                 
                 // Delete from Google Drive asynchronously
                 deleteFileFromGoogleDriveAsync(id);
@@ -179,6 +283,7 @@ public class ImageServiceImpl implements ImageService {
             // Delete from database first
             imageRepository.deleteAllById(ids);
             log.info("Images deleted from database with IDs: {}", ids);
+            eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.IMAGE_REMOVED, ids, null));
             
             // Delete from Google Drive asynchronously for each ID
             for (String id : ids) {
@@ -191,12 +296,11 @@ public class ImageServiceImpl implements ImageService {
     }
     
     /**
-     * Asynchronously delete a file from Google Drive by its ID
+     * Asynchronously delete a file from Google Drive by its ID on the application task executor
      * @param fileId The Google Drive file ID to delete
      * @return CompletableFuture that completes when the deletion is done
      */
-    @Async
-    public CompletableFuture<Void> deleteFileFromGoogleDriveAsync(String fileId) {
+    private CompletableFuture<Void> deleteFileFromGoogleDriveAsync(String fileId) {
         return CompletableFuture.runAsync(() -> {
             try {
                 log.info("Starting async deletion of file from Google Drive with ID: {}", fileId);
@@ -207,7 +311,7 @@ public class ImageServiceImpl implements ImageService {
                 // Note: We don't rethrow the exception here as this is async and we don't want to affect the main flow
                 // The database deletion has already succeeded, so this is a cleanup operation
             }
-        });
+        }, applicationTaskExecutor);
     }
     
     private ImageType determineImageType(String contentType) {
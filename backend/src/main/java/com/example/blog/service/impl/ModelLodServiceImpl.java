@@ -0,0 +1,264 @@
+package com.example.blog.service.impl;
+
+import com.example.blog.dto.ModelLodDto;
+import com.example.blog.enums.ImageType;
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.model.Image;
+import com.example.blog.repository.ImageRepository;
+import com.example.blog.service.DerivedMediaExecutor;
+import com.example.blog.service.DriveFolderIds;
+import com.example.blog.service.GgDriveService;
+import com.example.blog.service.LocalMediaCache;
+import com.example.blog.service.MediaUrlResolver;
+import com.example.blog.service.ModelLodService;
+import com.example.blog.util.GlbModel;
+import com.example.blog.util.GlbSimplifier;
+import com.example.blog.util.TextUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Builds a low-detail preview of each GLB model (GlbSimplifier: clustered meshes, small textures) in the local
+ * media cache, so the 3D viewer paints a rough model within a few hundred KB and swaps in the full one when it lands.
+ * Runs after a sync, after an upload, or on the first request for a missing preview, like the 360 tiles.
+ * Sources are MODEL_3D documents in Mongo and the GLB files listed live from the Drive 3D folder (id = Drive id).
+ */
+@Service
+@Log4j2
+public class ModelLodServiceImpl implements ModelLodService, DisposableBean {
+
+    private static final String AREA = "models";
+    private static final String DESCRIPTOR = "lod.json";
+    private static final String PREVIEW = "preview.glb";
+    /* a request for an unknown id re-lists the 3D folder at most this often */
+    private static final long FOLDER_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final ImageRepository imageRepository;
+    private final GgDriveService ggDriveService;
+    private final LocalMediaCache mediaCache;
+    private final MediaUrlResolver mediaUrlResolver;
+    private final ObjectMapper objectMapper;
+    private final DerivedMediaExecutor executor;
+    private final DriveFolderIds folder3d;
+    private final Map<String, ModelLodDto> descriptors = new ConcurrentHashMap<>();
+    private final double triangleRatio;
+    private final int maxTextureSize;
+    private final float jpegQuality;
+    private final long maxSourceBytes;
+
+    public ModelLodServiceImpl(ImageRepository imageRepository,
+                               GgDriveService ggDriveService,
+                               LocalMediaCache mediaCache,
+                               MediaUrlResolver mediaUrlResolver,
+                               ObjectMapper objectMapper,
+                               @Value("${model.preview.triangle-ratio:0.1}") double triangleRatio,
+                               @Value("${model.preview.max-texture-size:256}") int maxTextureSize,
+                               @Value("${model.preview.jpeg-quality:0.8}") float jpegQuality,
+                               @Value("${model.preview.max-source-mb:64}") int maxSourceMb,
+                               @Value("${model.preview.threads:1}") int threads,
+                               @Value("${model.preview.queue-capacity:64}") int queueCapacity) {
+        this.imageRepository = imageRepository;
+        this.ggDriveService = ggDriveService;
+        this.mediaCache = mediaCache;
+        this.mediaUrlResolver = mediaUrlResolver;
+        this.objectMapper = objectMapper;
+        this.triangleRatio = triangleRatio;
+        this.maxTextureSize = maxTextureSize;
+        this.jpegQuality = jpegQuality;
+        this.maxSourceBytes = maxSourceMb * 1024L * 1024L;
+        this.executor = new DerivedMediaExecutor("model-lod", threads, queueCapacity);
+        this.folder3d = new DriveFolderIds("3D", ggDriveService::get3dModelIds, FOLDER_REFRESH_MILLIS);
+    }
+
+    @Async
+    @EventListener
+    public void onSyncCompleted(SyncCompletedEvent event) {
+        if (SyncCompletedEvent.IMAGES.equals(event.getKind())) {
+            imageRepository.findByType(ImageType.MODEL_3D).forEach(this::scheduleIfMissing);
+            for (String id : folder3d.refresh()) {
+                scheduleIfMissing(id, id, null);
+            }
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (event.getIds() == null) {
+            return;
+        }
+        if (ChangeEvent.IMAGE_ADDED.equals(event.getType())) {
+            imageRepository.findAllById(event.getIds()).stream()
+                    .filter(image -> image.getType() == ImageType.MODEL_3D)
+                    .forEach(this::scheduleIfMissing);
+        } else if (ChangeEvent.IMAGE_REMOVED.equals(event.getType())) {
+            for (String id : event.getIds()) {
+                if (mediaCache.isValidKey(id)) {
+                    descriptors.remove(id);
+                    mediaCache.delete(mediaCache.entry(AREA, id));
+                }
+            }
+        }
+    }
+
+    @Override
+    public ModelLodDto getLod(String imageId) {
+        if (!mediaCache.isValidKey(imageId)) {
+            return null;
+        }
+        ModelLodDto descriptor = descriptors.get(imageId);
+        if (descriptor == null) {
+            descriptor = readDescriptor(imageId);
+        }
+        if (descriptor == null) {
+            Image image = imageRepository.findById(imageId).orElse(null);
+            if (image != null && image.getType() == ImageType.MODEL_3D) {
+                schedule(image.getId(), driveId(image), image.getName());
+            } else if (folder3d.contains(imageId)) {
+                schedule(imageId, imageId, null);
+            }
+            return null;
+        }
+        return descriptor.toBuilder()
+                .fullUrl(mediaUrlResolver.resolve(descriptor.getDriveId(), descriptor.getName()))
+                .build();
+    }
+
+    @Override
+    public Path getPreview(String imageId) {
+        if (!mediaCache.isValidKey(imageId)) {
+            return null;
+        }
+        Path file = mediaCache.entry(AREA, imageId).resolve(PREVIEW);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private ModelLodDto readDescriptor(String id) {
+        Path file = mediaCache.entry(AREA, id).resolve(DESCRIPTOR);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            ModelLodDto descriptor = objectMapper.readValue(file.toFile(), ModelLodDto.class);
+            descriptors.put(id, descriptor);
+            return descriptor;
+        } catch (IOException e) {
+            log.warn("Unreadable model descriptor {}, rebuilding: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String driveId(Image image) {
+        return image.getDriveId() != null ? image.getDriveId() : TextUtil.extractDriveId(image.getUrl());
+    }
+
+    private void scheduleIfMissing(Image image) {
+        scheduleIfMissing(image.getId(), driveId(image), image.getName());
+    }
+
+    private void scheduleIfMissing(String id, String driveId, String name) {
+        if (mediaCache.isValidKey(id) && !Files.exists(mediaCache.entry(AREA, id).resolve(DESCRIPTOR))) {
+            schedule(id, driveId, name);
+        }
+    }
+
+    private void schedule(String id, String driveId, String name) {
+        if (driveId != null && mediaCache.isValidKey(id)) {
+            executor.submit(id, () -> generate(id, driveId, name));
+        }
+    }
+
+    /*
+     * Models that are not GLB, too large, or cannot be reduced get a descriptor without previewUrl,
+     * so they are not downloaded again on every view. The source is streamed to the work directory (at most
+     * max-source-mb + 1 bytes) and parsed from there, so only its JSON and BIN chunks are ever on the heap.
+     */
+    private void generate(String id, String driveId, String name) throws IOException {
+        long started = System.nanoTime();
+        Path work = mediaCache.newWorkDirectory(AREA);
+        try {
+            Path source = work.resolve("source");
+            long sourceBytes;
+            try (InputStream in = ggDriveService.getFileContent(driveId)) {
+                sourceBytes = copyAtMost(in, source, maxSourceBytes + 1);
+            }
+            ModelLodDto.ModelLodDtoBuilder descriptor = ModelLodDto.builder()
+                    .id(id)
+                    .name(name)
+                    .driveId(driveId)
+                    .fullBytes(sourceBytes);
+
+            GlbSimplifier.Result preview = null;
+            if (sourceBytes > maxSourceBytes) {
+                log.info("Model {} is over {} bytes, no preview", id, maxSourceBytes);
+            } else if (!isGlb(source)) {
+                log.info("Model {} is not a binary glTF file, no preview", id);
+            } else {
+                GlbModel model = GlbModel.read(source, objectMapper);
+                descriptor.fullTriangles(GlbSimplifier.triangleCount(model));
+                preview = GlbSimplifier.simplify(model, triangleRatio, maxTextureSize, jpegQuality);
+            }
+            Files.delete(source);
+            if (preview != null) {
+                byte[] previewBytes = preview.getModel().write(objectMapper);
+                Files.write(work.resolve(PREVIEW), previewBytes);
+                descriptor.previewUrl("/api/images/" + id + "/lod/preview")
+                        .previewBytes(previewBytes.length)
+                        .previewTriangles(preview.getPreviewTriangles());
+            }
+            ModelLodDto built = descriptor.build();
+            objectMapper.writeValue(work.resolve(DESCRIPTOR).toFile(), built);
+            mediaCache.publish(work, mediaCache.entry(AREA, id));
+            descriptors.put(id, built);
+            log.info("Built LOD of model {} ({} -> {} triangles, {} -> {} bytes) in {} ms", id,
+                    built.getFullTriangles(), built.getPreviewTriangles(), built.getFullBytes(), built.getPreviewBytes(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            mediaCache.delete(work);
+        }
+    }
+
+    /*
+     * Stops once limit bytes are written; a result equal to limit means the stream had at least that many
+     */
+    private static long copyAtMost(InputStream in, Path target, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while (total < limit && (read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - total))) != -1) {
+                out.write(buffer, 0, read);
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    private static boolean isGlb(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return GlbModel.isGlb(in.readNBytes(12));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
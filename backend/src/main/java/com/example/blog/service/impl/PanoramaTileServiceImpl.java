@@ -0,0 +1,335 @@
+package com.example.blog.service.impl;
+
+import com.example.blog.dto.TileSetDto;
+import com.example.blog.enums.ImageType;
+import com.example.blog.event.ChangeEvent;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.model.Image;
+import com.example.blog.repository.ImageRepository;
+import com.example.blog.service.DerivedMediaExecutor;
+import com.example.blog.service.DriveFolderIds;
+import com.example.blog.service.GgDriveService;
+import com.example.blog.service.LocalMediaCache;
+import com.example.blog.service.PanoramaTileService;
+import com.example.blog.util.TextUtil;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.log4j.Log4j2;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Cuts 360 images (ImageType.PHOTO_360) into an equirectangular tile pyramid in the local media cache, so the viewer
+ * shows a small preview at once and then loads only the tiles in view at the current zoom.
+ *
+ * Level n has 2^(n+1) x 2^n tiles of tileSize px; the top level is the largest that the source width
+ * (and panorama.tiles.max-width) fills without upscaling. The source is decoded one tile row at a time
+ * (ImageReader source regions), so memory is bounded by one strip plus a half-resolution copy for the lower levels.
+ * Generation runs on a small dedicated pool after a sync, after an upload, or on the first request for a missing set.
+ * Sources are PHOTO_360 documents in Mongo and the images listed live from the Drive 360 folder (id = Drive id).
+ */
+@Service
+@Log4j2
+public class PanoramaTileServiceImpl implements PanoramaTileService, DisposableBean {
+
+    private static final String AREA = "tiles";
+    private static final String DESCRIPTOR = "tiles.json";
+    private static final String PREVIEW = "preview.jpg";
+    private static final int MIN_COLS = 2;
+    /* EquirectangularTilesAdapter limit */
+    private static final int MAX_COLS = 64;
+    /* a request for an unknown id re-lists the 360 folder at most this often */
+    private static final long FOLDER_REFRESH_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final ImageRepository imageRepository;
+    private final GgDriveService ggDriveService;
+    private final LocalMediaCache mediaCache;
+    private final ObjectMapper objectMapper;
+    private final DerivedMediaExecutor executor;
+    private final DriveFolderIds folder360;
+    private final Map<String, TileSetDto> tileSets = new ConcurrentHashMap<>();
+    private final int tileSize;
+    private final int maxCols;
+    private final float jpegQuality;
+
+    public PanoramaTileServiceImpl(ImageRepository imageRepository,
+                                   GgDriveService ggDriveService,
+                                   LocalMediaCache mediaCache,
+                                   ObjectMapper objectMapper,
+                                   @Value("${panorama.tiles.tile-size:512}") int tileSize,
+                                   @Value("${panorama.tiles.max-width:8192}") int maxWidth,
+                                   @Value("${panorama.tiles.jpeg-quality:0.85}") float jpegQuality,
+                                   @Value("${panorama.tiles.threads:1}") int threads,
+                                   @Value("${panorama.tiles.queue-capacity:256}") int queueCapacity) {
+        this.imageRepository = imageRepository;
+        this.ggDriveService = ggDriveService;
+        this.mediaCache = mediaCache;
+        this.objectMapper = objectMapper;
+        this.tileSize = tileSize;
+        this.maxCols = Math.min(MAX_COLS, Integer.highestOneBit(Math.max(MIN_COLS, maxWidth / tileSize)));
+        this.jpegQuality = jpegQuality;
+        this.executor = new DerivedMediaExecutor("pano-tiles", threads, queueCapacity);
+        this.folder360 = new DriveFolderIds("360", ggDriveService::get360ImageIds, FOLDER_REFRESH_MILLIS);
+    }
+
+    @Async
+    @EventListener
+    public void onSyncCompleted(SyncCompletedEvent event) {
+        if (SyncCompletedEvent.IMAGES.equals(event.getKind())) {
+            imageRepository.findByType(ImageType.PHOTO_360).forEach(this::scheduleIfMissing);
+            for (String id : folder360.refresh()) {
+                scheduleIfMissing(id, id);
+            }
+        }
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent event) {
+        if (event.getIds() == null) {
+            return;
+        }
+        if (ChangeEvent.IMAGE_ADDED.equals(event.getType())) {
+            imageRepository.findAllById(event.getIds()).stream()
+                    .filter(image -> image.getType() == ImageType.PHOTO_360)
+                    .forEach(this::scheduleIfMissing);
+        } else if (ChangeEvent.IMAGE_REMOVED.equals(event.getType())) {
+            for (String id : event.getIds()) {
+                if (mediaCache.isValidKey(id)) {
+                    tileSets.remove(id);
+                    mediaCache.delete(mediaCache.entry(AREA, id));
+                }
+            }
+        }
+    }
+
+    @Override
+    public TileSetDto getTileSet(String imageId) {
+        if (!mediaCache.isValidKey(imageId)) {
+            return null;
+        }
+        TileSetDto tileSet = tileSets.get(imageId);
+        if (tileSet != null) {
+            return tileSet;
+        }
+        Path descriptor = mediaCache.entry(AREA, imageId).resolve(DESCRIPTOR);
+        if (Files.exists(descriptor)) {
+            try {
+                tileSet = objectMapper.readValue(descriptor.toFile(), TileSetDto.class);
+                tileSets.put(imageId, tileSet);
+                return tileSet;
+            } catch (IOException e) {
+                log.warn("Unreadable tile descriptor {}, regenerating: {}", descriptor, e.getMessage());
+            }
+        }
+        Image image = imageRepository.findById(imageId).orElse(null);
+        if (image != null && image.getType() == ImageType.PHOTO_360) {
+            schedule(image.getId(), driveId(image));
+        } else if (folder360.contains(imageId)) {
+            schedule(imageId, imageId);
+        }
+        return null;
+    }
+
+    @Override
+    public Path getTile(String imageId, int level, int col, int row) {
+        if (!mediaCache.isValidKey(imageId) || level < 0 || col < 0 || row < 0) {
+            return null;
+        }
+        return existing(mediaCache.entry(AREA, imageId).resolve(Integer.toString(level)).resolve(col + "_" + row + ".jpg"));
+    }
+
+    @Override
+    public Path getPreview(String imageId) {
+        return mediaCache.isValidKey(imageId) ? existing(mediaCache.entry(AREA, imageId).resolve(PREVIEW)) : null;
+    }
+
+    private static Path existing(Path file) {
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    private static String driveId(Image image) {
+        return image.getDriveId() != null ? image.getDriveId() : TextUtil.extractDriveId(image.getUrl());
+    }
+
+    private void scheduleIfMissing(Image image) {
+        scheduleIfMissing(image.getId(), driveId(image));
+    }
+
+    private void scheduleIfMissing(String id, String driveId) {
+        if (mediaCache.isValidKey(id) && !Files.exists(mediaCache.entry(AREA, id).resolve(DESCRIPTOR))) {
+            schedule(id, driveId);
+        }
+    }
+
+    private void schedule(String id, String driveId) {
+        if (driveId != null && mediaCache.isValidKey(id)) {
+            executor.submit(id, () -> generate(id, driveId));
+        }
+    }
+
+    private void generate(String id, String driveId) throws IOException {
+        long started = System.nanoTime();
+        Path work = mediaCache.newWorkDirectory(AREA);
+        try {
+            Path source = work.resolve("source");
+            try (InputStream in = ggDriveService.getFileContent(driveId)) {
+                Files.copy(in, source);
+            }
+            TileSetDto tileSet = cut(id, source, work);
+            Files.delete(source);
+            objectMapper.writeValue(work.resolve(DESCRIPTOR).toFile(), tileSet);
+            mediaCache.publish(work, mediaCache.entry(AREA, id));
+            tileSets.put(id, tileSet);
+            log.info("Tiled 360 image {} into {} levels in {} ms", id, tileSet.getLevels().size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            mediaCache.delete(work);
+        }
+    }
+
+    /*
+     * Too small to tile (narrower than MIN_COLS tiles): an empty level list, so the viewer keeps the full image
+     */
+    private TileSetDto cut(String id, Path source, Path work) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                return cut(id, reader, work);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private TileSetDto cut(String id, ImageReader reader, Path work) throws IOException {
+        int sourceWidth = reader.getWidth(0);
+        int sourceHeight = reader.getHeight(0);
+        List<TileSetDto.Level> levels = new ArrayList<>();
+        for (int cols = MIN_COLS; cols <= maxCols && cols * tileSize <= sourceWidth; cols *= 2) {
+            levels.add(new TileSetDto.Level(cols * tileSize, cols, cols / 2));
+        }
+        TileSetDto tileSet = TileSetDto.builder()
+                .id(id)
+                .tileSize(tileSize)
+                .baseUrl("/api/images/" + id + "/tiles/preview")
+                .tileUrl("/api/images/" + id + "/tiles/{level}/{col}/{row}")
+                .levels(levels)
+                .build();
+        if (levels.isEmpty()) {
+            return tileSet;
+        }
+
+        int top = levels.size() - 1;
+        TileSetDto.Level topLevel = levels.get(top);
+        BufferedImage preview = new BufferedImage(MIN_COLS * tileSize, MIN_COLS * tileSize / 2, BufferedImage.TYPE_INT_RGB);
+        BufferedImage half = top > 0
+                ? new BufferedImage(topLevel.getWidth() / 2, topLevel.getWidth() / 4, BufferedImage.TYPE_INT_RGB)
+                : null;
+        ImageReadParam param = reader.getDefaultReadParam();
+        for (int row = 0; row < topLevel.getRows(); row++) {
+            int y0 = (int) ((long) row * sourceHeight / topLevel.getRows());
+            int y1 = (int) ((long) (row + 1) * sourceHeight / topLevel.getRows());
+            param.setSourceRegion(new Rectangle(0, y0, sourceWidth, Math.max(1, y1 - y0)));
+            BufferedImage band = scaled(reader.read(0, param), topLevel.getWidth(), tileSize);
+            writeTiles(band, work, top, topLevel.getCols(), row);
+            drawInto(preview, band, row, topLevel.getRows());
+            if (half != null) {
+                drawInto(half, band, row, topLevel.getRows());
+            }
+        }
+
+        BufferedImage level = half;
+        for (int l = top - 1; l >= 0; l--) {
+            TileSetDto.Level current = levels.get(l);
+            for (int row = 0; row < current.getRows(); row++) {
+                writeTiles(level.getSubimage(0, row * tileSize, current.getWidth(), tileSize), work, l, current.getCols(), row);
+            }
+            if (l > 0) {
+                level = scaled(level, level.getWidth() / 2, level.getHeight() / 2);
+            }
+        }
+        writeJpeg(preview, work.resolve(PREVIEW));
+        return tileSet;
+    }
+
+    private void writeTiles(BufferedImage band, Path work, int level, int cols, int row) throws IOException {
+        Path directory = Files.createDirectories(work.resolve(Integer.toString(level)));
+        for (int col = 0; col < cols; col++) {
+            writeJpeg(band.getSubimage(col * tileSize, 0, tileSize, tileSize), directory.resolve(col + "_" + row + ".jpg"));
+        }
+    }
+
+    private static void drawInto(BufferedImage target, BufferedImage band, int row, int rows) {
+        int height = target.getHeight() / rows;
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(band, 0, row * height, target.getWidth(), height, null);
+        } finally {
+            g.dispose();
+        }
+    }
+
+    private static BufferedImage scaled(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private void writeJpeg(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(file.toFile())) {
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
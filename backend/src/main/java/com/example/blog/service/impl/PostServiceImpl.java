@@ -1,15 +1,20 @@
 package com.example.blog.service.impl;
 
 import com.example.blog.dto.PostDto;
+import com.example.blog.dto.PostSummaryDto;
 import com.example.blog.enums.PostCategory;
+import com.example.blog.event.ChangeEvent;
 import com.example.blog.mapper.PostMapper;
 import com.example.blog.model.Post;
 import com.example.blog.repository.PostRepository;
+import com.example.blog.repository.SecondaryRead;
 import com.example.blog.service.PostService;
+import com.example.blog.util.TextUtil;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.log4j.Log4j2;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -26,8 +31,8 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.CacheEvict;
 
 import java.time.Instant;
-import java.util.Arrays;
 import java.util.List;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,50 +43,44 @@ public class PostServiceImpl implements PostService {
     private final PostRepository postRepository;
     private final PostMapper postMapper;
     private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int MAX_SEARCH_WORDS = 8;
 
     @Override
+    @SecondaryRead
     @Transactional(readOnly = true)
-    public Page<PostDto> getList(PostCategory category, String searchQuery, String language, Pageable pageable) {
-        Page<Post> posts;
-        if (category != null || language != null || (searchQuery != null && !searchQuery.isBlank())) {
-            Query query = new Query();
-            Criteria criteria = Criteria.where("enable").in(null, true);
-            if (category != null) {
-                criteria.and("category").is(category);
-            }
-            if (language != null) {
-                criteria.and("language").is(language);
-            }
-            if (searchQuery != null && !searchQuery.isBlank()) {
-                criteria.orOperator(
-                    Criteria.where("title").regex(searchQuery, "i"),
-                    Criteria.where("titleNoAccent").regex(searchQuery.toLowerCase(), "i"),
-                    Criteria.where("content").regex(searchQuery, "i")
-                );
-            }
-            query.addCriteria(criteria);
-            
-            // Create separate query for counting (without pagination)
-            Query countQuery = new Query();
-            countQuery.addCriteria(criteria);
-            long total = mongoTemplate.count(countQuery, Post.class);
-            
-            // Apply pagination only to the data query
-            query.with(pageable);
-            List<Post> postList = mongoTemplate.find(query, Post.class);
-            posts = new PageImpl<>(postList, pageable, total);
-        } else {
-            posts = postRepository.findByEnableTrueOrEnableNull(pageable);
+    public Page<PostSummaryDto> getList(PostCategory category, String searchQuery, String language, Pageable pageable) {
+        List<String> words = searchQuery == null || searchQuery.isBlank()
+                ? List.of()
+                : TextUtil.searchTokens(MAX_SEARCH_WORDS, searchQuery);
+        Criteria criteria = listCriteria(category, language, words, true);
+
+        // Create separate query for counting (without pagination)
+        long total = mongoTemplate.count(new Query(criteria), Post.class);
+        if (total == 0 && !words.isEmpty()) {
+            // nothing starts with the query words: retry mid-word ("lak" finds "daklak"), as the old substring
+            // search did; unanchored regexes walk the whole searchTokens index, so only on this miss path
+            criteria = listCriteria(category, language, words, false);
+            total = mongoTemplate.count(new Query(criteria), Post.class);
         }
-        return posts.map(postMapper::toDto);
+
+        // Apply pagination only to the data query
+        Query query = summaryQuery(criteria).with(pageable);
+        List<Post> postList = mongoTemplate.find(query, Post.class);
+        return new PageImpl<>(postList, pageable, total).map(postMapper::toSummaryDto);
     }
 
 
     @Override
+    @SecondaryRead
     @Transactional(readOnly = true)
-    public List<PostDto> getNews(String language) {
-        return postRepository.findByCategoryInAndLanguageAndEnableIn(Arrays.asList(PostCategory.NEWS, PostCategory.OTHER), language, Arrays.asList(true, null))
-            .stream().map(postMapper::toDto).collect(Collectors.toList());
+    public List<PostSummaryDto> getNews(String language) {
+        Criteria criteria = Criteria.where("category").in(PostCategory.NEWS, PostCategory.OTHER)
+                .and("language").is(language)
+                .and("enable").is(true);
+        return mongoTemplate.find(summaryQuery(criteria), Post.class)
+            .stream().map(postMapper::toSummaryDto).collect(Collectors.toList());
     }
 
     @Override
@@ -95,7 +94,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @Cacheable(value = "homeCache", key = "#language ?: 'default'")
     public PostDto getHome(String language) {
-        Post post = postRepository.findFirstByCategoryAndLanguageAndEnableIn(PostCategory.HOME, language, Arrays.asList(true, null))
+        Post post = postRepository.findFirstByCategoryAndLanguageAndEnableTrue(PostCategory.HOME, language)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Home post not found"));
         return postMapper.toDto(post);
     }
@@ -103,7 +102,7 @@ public class PostServiceImpl implements PostService {
     @Override
     @Cacheable(value = "aboutCache", key = "#language ?: 'default'")
     public PostDto getAbout(String language) {
-        Post post = postRepository.findFirstByCategoryAndLanguageAndEnableIn(PostCategory.ABOUT, language, Arrays.asList(true, null))
+        Post post = postRepository.findFirstByCategoryAndLanguageAndEnableTrue(PostCategory.ABOUT, language)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "About post not found"));
         return postMapper.toDto(post);
     }
@@ -125,6 +124,7 @@ public class PostServiceImpl implements PostService {
         post.setCreatedAt(Instant.now());
         post = postRepository.save(post);
         log.info("A post saved successfully with ID: {}", post.getId());
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.POST_CREATED, post.getId()));
         return postMapper.toDto(post);
     }
 
@@ -148,6 +148,7 @@ public class PostServiceImpl implements PostService {
         
         existingPost.setUpdatedAt(Instant.now());        
         Post updatedPost = postRepository.save(existingPost);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.POST_UPDATED, id));
         return postMapper.toDto(updatedPost);
     }
 
@@ -165,6 +166,7 @@ public class PostServiceImpl implements PostService {
             post.setUpdatedUser(currentUsername);
         }
         postRepository.save(post);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.POST_DELETED, id));
     }
 
     @Override
@@ -184,6 +186,8 @@ public class PostServiceImpl implements PostService {
             }
         }
         postRepository.saveAll(posts);
+        eventPublisher.publishEvent(ChangeEvent.of(ChangeEvent.POST_DELETED,
+                posts.stream().map(Post::getId).collect(Collectors.toList()), null));
     }
 
     @Override
@@ -192,6 +196,35 @@ public class PostServiceImpl implements PostService {
         postRepository.deleteAllByEnableFalse();
     }
 
+    /*
+     * Every query word must match a stored token (folded, distinct title and content words, see
+     * PostMapper.applyDerivedFields): as a prefix when anchored, which keeps the regexes on the searchTokens index
+     */
+    private static Criteria listCriteria(PostCategory category, String language, List<String> words, boolean anchored) {
+        Criteria criteria = Criteria.where("enable").is(true);
+        if (category != null) {
+            criteria.and("category").is(category);
+        }
+        if (language != null) {
+            criteria.and("language").is(language);
+        }
+        if (!words.isEmpty()) {
+            criteria.and("searchTokens").all(words.stream()
+                    .map(word -> Pattern.compile(anchored ? "^" + word : word))
+                    .toArray());
+        }
+        return criteria;
+    }
+
+    /*
+     * Leaves the HTML body and the search tokens on the server; summaries are built from stored derived fields
+     */
+    private static Query summaryQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().exclude("content").exclude("searchTokens");
+        return query;
+    }
+
     private String getCurrentUsername() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null) {
@@ -7,6 +7,8 @@ import com.example.blog.dto.VideoDto;
 import com.example.blog.mapper.VideoMapper;
 import com.example.blog.model.You2beVideo;
 import com.example.blog.enums.Ethnic;
+import com.example.blog.event.SyncCompletedEvent;
+import com.example.blog.metrics.AppMetrics;
 
 import java.io.IOException;
 import java.time.Instant;
@@ -17,6 +19,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
@@ -36,8 +39,12 @@ import com.google.api.services.youtube.model.VideoListResponse;
 @RequiredArgsConstructor
 public class U2beServiceImpl implements U2beService {
 
+    private static final Pattern PLAYLIST_ID = Pattern.compile("list=([a-zA-Z0-9_-]+)");
+
     private final VideoMapper  videoMapper;
     private final VideoRepository videoRepository;
+    private final AppMetrics appMetrics;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${u2be.playlist-url}")
     private String playlistUrl;
@@ -45,6 +52,9 @@ public class U2beServiceImpl implements U2beService {
     @Value("${u2be.api-key}")
     private String apiKey;
 
+    @Value("${u2be.root-url:https://youtube.googleapis.com/}")
+    private String rootUrl;
+
     @Override
     public Page<VideoDto> getVideosFromPlaylist(Pageable pageable) throws IOException {
         return videoRepository.findAll(pageable).map(videoMapper::toDto);
@@ -57,6 +67,13 @@ public class U2beServiceImpl implements U2beService {
 
     @Override
     public List<VideoDto> syncVideosFromPlaylist() throws IOException {
+        List<VideoDto> syncedClips = new ArrayList<>();
+        appMetrics.recordSync(SyncCompletedEvent.VIDEOS, null, () -> syncPlaylist(syncedClips));
+        eventPublisher.publishEvent(new SyncCompletedEvent(SyncCompletedEvent.VIDEOS, null));
+        return syncedClips;
+    }
+
+    private void syncPlaylist(List<VideoDto> syncedClips) throws IOException {
         log.info("Starting sync of videos from playlist: {}", playlistUrl);
         
         try {
@@ -71,9 +88,8 @@ public class U2beServiceImpl implements U2beService {
                 GoogleNetHttpTransport.newTrustedTransport(),
                 GsonFactory.getDefaultInstance(),
                 null
-            ).setApplicationName("Daklak Blog").build();
+            ).setApplicationName("Daklak Blog").setRootUrl(rootUrl).build();
             
-            List<VideoDto> syncedClips = new ArrayList<>();
             String nextPageToken = null;
             
             do {
@@ -88,7 +104,8 @@ public class U2beServiceImpl implements U2beService {
                     playlistItemsRequest.setPageToken(nextPageToken);
                 }
                 
-                PlaylistItemListResponse playlistItemsResponse = playlistItemsRequest.execute();
+                PlaylistItemListResponse playlistItemsResponse = appMetrics.recordRemoteCall(
+                    AppMetrics.CLIENT_YOUTUBE, "playlistItems.list", playlistItemsRequest::execute);
                 List<PlaylistItem> playlistItems = playlistItemsResponse.getItems();
                 
                 if (playlistItems != null && !playlistItems.isEmpty()) {
@@ -107,7 +124,8 @@ public class U2beServiceImpl implements U2beService {
                             .setId(videoIds)
                             .setKey(apiKey);
                         
-                        VideoListResponse videosResponse = videosRequest.execute();
+                        VideoListResponse videosResponse = appMetrics.recordRemoteCall(
+                            AppMetrics.CLIENT_YOUTUBE, "videos.list", videosRequest::execute);
                         List<Video> videos = videosResponse.getItems();
                         
                         if (videos != null) {
@@ -130,7 +148,6 @@ public class U2beServiceImpl implements U2beService {
             } while (nextPageToken != null);
             
             log.info("Successfully synced {} videos from playlist", syncedClips.size());
-            return syncedClips;
             
         } catch (Exception e) {
             log.error("Error syncing videos from playlist: {}", e.getMessage(), e);
@@ -139,8 +156,7 @@ public class U2beServiceImpl implements U2beService {
     }
     
     private String extractPlaylistId(String playlistUrl) {
-        Pattern pattern = Pattern.compile("list=([a-zA-Z0-9_-]+)");
-        Matcher matcher = pattern.matcher(playlistUrl);
+        Matcher matcher = PLAYLIST_ID.matcher(playlistUrl);
         if (matcher.find()) {
             return matcher.group(1);
         }
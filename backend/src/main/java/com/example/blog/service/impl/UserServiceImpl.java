@@ -58,8 +58,8 @@ public class UserServiceImpl implements UserService {
             criteria.and("roles").in(Roles.MANAGER);
         }
 
-        // Add enabled filter
-        criteria.and("enabled").in(null, true);
+        // Add enabled filter (never null since the enable-flag backfill, so a plain equality on the index prefix)
+        criteria.and("enabled").is(true);
         query.addCriteria(criteria);
         
         // Create separate query for counting (without pagination)
@@ -0,0 +1,166 @@
+package com.example.blog.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * Binary glTF 2.0 container (.glb): 12-byte header, a JSON chunk and an optional BIN chunk, all little-endian.
+ * The JSON is kept as a tree so callers can rewrite meshes/accessors in place; see GlbSimplifier.
+ */
+public final class GlbModel {
+
+    /* "glTF" */
+    private static final int MAGIC = 0x46546C67;
+    private static final int VERSION = 2;
+    private static final int CHUNK_JSON = 0x4E4F534A;
+    private static final int CHUNK_BIN = 0x004E4942;
+    private static final int HEADER_LENGTH = 12;
+    private static final int CHUNK_HEADER_LENGTH = 8;
+
+    private final ObjectNode json;
+    private final byte[] bin;
+
+    public GlbModel(ObjectNode json, byte[] bin) {
+        this.json = json;
+        this.bin = bin != null ? bin : new byte[0];
+    }
+
+    public static boolean isGlb(byte[] data) {
+        return data.length >= HEADER_LENGTH
+                && ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN).getInt(0) == MAGIC;
+    }
+
+    public static GlbModel read(byte[] data, ObjectMapper objectMapper) throws IOException {
+        if (!isGlb(data)) {
+            throw new IOException("Not a binary glTF file");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported glTF version " + buffer.getInt(4));
+        }
+        int length = Math.min(buffer.getInt(8), data.length);
+        ObjectNode json = null;
+        byte[] bin = null;
+        int position = HEADER_LENGTH;
+        while (position + CHUNK_HEADER_LENGTH <= length) {
+            int chunkLength = buffer.getInt(position);
+            int chunkType = buffer.getInt(position + 4);
+            int start = position + CHUNK_HEADER_LENGTH;
+            if (chunkLength < 0 || start + chunkLength > length) {
+                throw new IOException("Truncated glTF chunk");
+            }
+            if (chunkType == CHUNK_JSON && json == null) {
+                json = readJson(objectMapper, data, start, chunkLength);
+            } else if (chunkType == CHUNK_BIN && bin == null) {
+                bin = new byte[chunkLength];
+                System.arraycopy(data, start, bin, 0, chunkLength);
+            }
+            position = start + chunkLength;
+        }
+        if (json == null) {
+            throw new IOException("glTF JSON chunk missing");
+        }
+        return new GlbModel(json, bin);
+    }
+
+    /*
+     * Same as read(byte[]) straight from a file: only the JSON chunk and a copy of the BIN chunk end up on the heap,
+     * never the whole container
+     */
+    public static GlbModel read(Path file, ObjectMapper objectMapper) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, 0, HEADER_LENGTH);
+            if (header == null || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary glTF file");
+            }
+            if (header.getInt(4) != VERSION) {
+                throw new IOException("Unsupported glTF version " + header.getInt(4));
+            }
+            long length = Math.min(Integer.toUnsignedLong(header.getInt(8)), channel.size());
+            ObjectNode json = null;
+            byte[] bin = null;
+            long position = HEADER_LENGTH;
+            while (position + CHUNK_HEADER_LENGTH <= length) {
+                ByteBuffer chunkHeader = readFully(channel, position, CHUNK_HEADER_LENGTH);
+                if (chunkHeader == null) {
+                    throw new IOException("Truncated glTF chunk");
+                }
+                int chunkLength = chunkHeader.getInt(0);
+                int chunkType = chunkHeader.getInt(4);
+                long start = position + CHUNK_HEADER_LENGTH;
+                if (chunkLength < 0 || start + chunkLength > length) {
+                    throw new IOException("Truncated glTF chunk");
+                }
+                if (chunkType == CHUNK_JSON && json == null) {
+                    json = readJson(objectMapper, readFully(channel, start, chunkLength).array(), 0, chunkLength);
+                } else if (chunkType == CHUNK_BIN && bin == null) {
+                    bin = readFully(channel, start, chunkLength).array();
+                }
+                position = start + chunkLength;
+            }
+            if (json == null) {
+                throw new IOException("glTF JSON chunk missing");
+            }
+            return new GlbModel(json, bin);
+        }
+    }
+
+    /*
+     * null when the file ends first
+     */
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                return null;
+            }
+        }
+        return buffer;
+    }
+
+    private static ObjectNode readJson(ObjectMapper objectMapper, byte[] data, int offset, int length) throws IOException {
+        JsonNode node = objectMapper.readTree(data, offset, length);
+        if (!(node instanceof ObjectNode)) {
+            throw new IOException("glTF JSON chunk is not an object");
+        }
+        return (ObjectNode) node;
+    }
+
+    public byte[] write(ObjectMapper objectMapper) throws IOException {
+        byte[] jsonBytes = objectMapper.writeValueAsBytes(json);
+        int jsonLength = align4(jsonBytes.length);
+        int binLength = align4(bin.length);
+        int total = HEADER_LENGTH + CHUNK_HEADER_LENGTH + jsonLength + (bin.length > 0 ? CHUNK_HEADER_LENGTH + binLength : 0);
+        ByteBuffer out = ByteBuffer.allocate(total).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(MAGIC).putInt(VERSION).putInt(total);
+        out.putInt(jsonLength).putInt(CHUNK_JSON).put(jsonBytes);
+        // JSON chunk is padded with spaces, BIN with zeros
+        for (int i = jsonBytes.length; i < jsonLength; i++) {
+            out.put((byte) ' ');
+        }
+        if (bin.length > 0) {
+            out.putInt(binLength).putInt(CHUNK_BIN).put(bin);
+        }
+        return out.array();
+    }
+
+    public ObjectNode json() {
+        return json;
+    }
+
+    public byte[] bin() {
+        return bin;
+    }
+
+    public static int align4(int length) {
+        return (length + 3) & ~3;
+    }
+}
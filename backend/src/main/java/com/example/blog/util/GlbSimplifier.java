@@ -0,0 +1,637 @@
+package com.example.blog.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+ * Builds the low-detail preview of a GLB model: indexed triangle meshes are decimated by vertex clustering
+ * (vertices snapped to a uniform grid collapse to one representative, degenerate triangles are dropped) and
+ * embedded PNG/JPEG textures are downscaled. Node hierarchy, materials, skins and animations are kept, so the
+ * preview sits exactly where the full model will appear.
+ *
+ * Primitives that cannot be rewritten safely (morph targets, sparse or compressed data, non-float positions,
+ * very small meshes) are copied unchanged. Models that need a decoder extension (Draco, meshopt, ...) or reference
+ * external buffers get no preview at all.
+ */
+public final class GlbSimplifier {
+
+    private static final int UNSIGNED_BYTE = 5121;
+    private static final int UNSIGNED_SHORT = 5123;
+    private static final int UNSIGNED_INT = 5125;
+    private static final int FLOAT = 5126;
+    private static final int TRIANGLES = 4;
+    private static final int ARRAY_BUFFER = 34962;
+    private static final int ELEMENT_ARRAY_BUFFER = 34963;
+
+    /* primitives below this are already cheap; decimating them only loses shape */
+    private static final int MIN_TRIANGLES = 256;
+    private static final int MAX_GRID = 1024;
+    private static final int MAX_ATTEMPTS = 8;
+
+    private static final List<String> SAFE_REQUIRED_EXTENSIONS = List.of(
+            "KHR_materials_", "KHR_texture_transform", "KHR_lights_punctual", "KHR_mesh_quantization");
+
+    private GlbSimplifier() {
+    }
+
+    public static final class Result {
+        private final GlbModel model;
+        private final int sourceTriangles;
+        private final int previewTriangles;
+
+        private Result(GlbModel model, int sourceTriangles, int previewTriangles) {
+            this.model = model;
+            this.sourceTriangles = sourceTriangles;
+            this.previewTriangles = previewTriangles;
+        }
+
+        public GlbModel getModel() {
+            return model;
+        }
+
+        public int getSourceTriangles() {
+            return sourceTriangles;
+        }
+
+        public int getPreviewTriangles() {
+            return previewTriangles;
+        }
+    }
+
+    /**
+     * Preview of the model with about triangleRatio of its triangles and textures of at most maxTextureSize px,
+     * or null when the model is unsupported or nothing in it could be reduced
+     */
+    public static Result simplify(GlbModel source, double triangleRatio, int maxTextureSize, float jpegQuality)
+            throws IOException {
+        ObjectNode json = source.json().deepCopy();
+        if (!isSupported(json)) {
+            return null;
+        }
+        byte[] bin = source.bin();
+        int originalViews = json.path("bufferViews").size();
+        List<byte[]> addedViews = new ArrayList<>();
+
+        Map<Integer, byte[]> replacedViews = downscaleTextures(json, bin, maxTextureSize, jpegQuality);
+
+        int sourceTriangles = 0;
+        int previewTriangles = 0;
+        boolean decimated = false;
+        for (JsonNode mesh : json.path("meshes")) {
+            for (JsonNode node : mesh.path("primitives")) {
+                ObjectNode primitive = (ObjectNode) node;
+                int before = triangleCount(json, primitive);
+                sourceTriangles += before;
+                if (decimate(json, bin, primitive, triangleRatio, addedViews, originalViews)) {
+                    decimated = true;
+                    previewTriangles += triangleCount(json, primitive);
+                } else {
+                    previewTriangles += before;
+                }
+            }
+        }
+        if (!decimated && replacedViews.isEmpty()) {
+            return null;
+        }
+        byte[] previewBin = compact(json, bin, originalViews, addedViews, replacedViews);
+        return new Result(new GlbModel(json, previewBin), sourceTriangles, previewTriangles);
+    }
+
+    public static int triangleCount(GlbModel model) {
+        int triangles = 0;
+        for (JsonNode mesh : model.json().path("meshes")) {
+            for (JsonNode primitive : mesh.path("primitives")) {
+                triangles += triangleCount(model.json(), primitive);
+            }
+        }
+        return triangles;
+    }
+
+    private static boolean isSupported(ObjectNode json) {
+        for (JsonNode extension : json.path("extensionsRequired")) {
+            if (SAFE_REQUIRED_EXTENSIONS.stream().noneMatch(extension.asText()::startsWith)) {
+                return false;
+            }
+        }
+        JsonNode buffers = json.path("buffers");
+        return buffers.size() <= 1 && (buffers.size() == 0 || !buffers.get(0).has("uri"));
+    }
+
+    private static int triangleCount(ObjectNode json, JsonNode primitive) {
+        JsonNode accessor = primitive.has("indices")
+                ? json.path("accessors").path(primitive.path("indices").asInt())
+                : json.path("accessors").path(primitive.path("attributes").path("POSITION").asInt(-1));
+        int count = accessor.path("count").asInt();
+        switch (primitive.path("mode").asInt(TRIANGLES)) {
+            case TRIANGLES: return count / 3;
+            case 5:
+            case 6: return Math.max(0, count - 2);
+            default: return 0;
+        }
+    }
+
+    /* ---- textures ---- */
+
+    private static Map<Integer, byte[]> downscaleTextures(ObjectNode json, byte[] bin, int maxSize, float jpegQuality)
+            throws IOException {
+        Map<Integer, byte[]> replaced = new HashMap<>();
+        Set<Integer> accessorViews = new HashSet<>();
+        for (JsonNode accessor : json.path("accessors")) {
+            markViews(accessor, accessorViews);
+        }
+        for (JsonNode image : json.path("images")) {
+            int view = image.path("bufferView").asInt(-1);
+            String mimeType = image.path("mimeType").asText();
+            boolean png = "image/png".equals(mimeType);
+            if (view < 0 || accessorViews.contains(view) || replaced.containsKey(view)
+                    || !(png || "image/jpeg".equals(mimeType))) {
+                continue;
+            }
+            byte[] original = viewBytes(json, bin, view);
+            byte[] smaller = downscale(original, png, maxSize, jpegQuality);
+            if (smaller != null) {
+                replaced.put(view, smaller);
+            }
+        }
+        return replaced;
+    }
+
+    private static byte[] downscale(byte[] data, boolean png, int maxSize, float jpegQuality) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data));
+        if (image == null || Math.max(image.getWidth(), image.getHeight()) <= maxSize) {
+            return null;
+        }
+        double scale = maxSize / (double) Math.max(image.getWidth(), image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        int type = png && image.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage scaled = new BufferedImage(width, height, type);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (png) {
+            ImageIO.write(scaled, "png", out);
+        } else {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+                writer.setOutput(imageOut);
+                writer.write(null, new IIOImage(scaled, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+        }
+        return out.size() < data.length ? out.toByteArray() : null;
+    }
+
+    /* ---- meshes ---- */
+
+    private static boolean decimate(ObjectNode json, byte[] bin, ObjectNode primitive, double ratio,
+                                    List<byte[]> addedViews, int originalViews) throws IOException {
+        JsonNode attributes = primitive.path("attributes");
+        if (primitive.path("mode").asInt(TRIANGLES) != TRIANGLES || primitive.has("targets")
+                || primitive.has("extensions") || !primitive.has("indices") || !attributes.isObject()) {
+            return false;
+        }
+        ArrayNode accessors = (ArrayNode) json.get("accessors");
+        JsonNode position = accessors.get(attributes.path("POSITION").asInt(-1));
+        if (position == null || position.path("componentType").asInt() != FLOAT
+                || !"VEC3".equals(position.path("type").asText())) {
+            return false;
+        }
+        int vertexCount = position.path("count").asInt();
+        for (JsonNode index : attributes) {
+            JsonNode accessor = accessors.get(index.asInt(-1));
+            if (accessor == null || !isPlain(accessor) || accessor.path("count").asInt() != vertexCount) {
+                return false;
+            }
+        }
+        JsonNode indexAccessor = accessors.get(primitive.path("indices").asInt(-1));
+        if (indexAccessor == null || !isPlain(indexAccessor)) {
+            return false;
+        }
+        int[] indices = readIndices(json, bin, indexAccessor);
+        if (indices == null || indices.length / 3 < MIN_TRIANGLES) {
+            return false;
+        }
+        for (int index : indices) {
+            if (index < 0 || index >= vertexCount) {
+                return false;
+            }
+        }
+        float[] positions = readVec3(json, bin, position);
+
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int index : indices) {
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], positions[index * 3 + axis]);
+                max[axis] = Math.max(max[axis], positions[index * 3 + axis]);
+            }
+        }
+        double extent = Math.max(max[0] - min[0], Math.max(max[1] - min[1], max[2] - min[2]));
+        if (!(extent > 0)) {
+            return false;
+        }
+
+        int triangles = indices.length / 3;
+        int target = Math.max(MIN_TRIANGLES / 2, (int) (triangles * ratio));
+        // a closed surface crossing g^3 cells touches about 6 g^2 of them, each giving two triangles
+        int grid = clamp((int) Math.sqrt(target / 12.0));
+        int[] best = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int[] collapsed = collapse(indices, positions, vertexCount, min, extent / grid, grid);
+            int count = collapsed.length / 3;
+            if (best == null || Math.abs(count - target) < Math.abs(best.length / 3 - target)) {
+                best = collapsed;
+            }
+            if (count >= target * 0.75 && count <= target * 1.25) {
+                break;
+            }
+            int next = clamp((int) Math.round(grid * Math.sqrt(target / (double) Math.max(count, 1))));
+            if (next == grid) {
+                break;
+            }
+            grid = next;
+        }
+        if (best.length == 0 || best.length / 3 > triangles * 0.9) {
+            return false;
+        }
+        rewrite(json, bin, primitive, best, vertexCount, positions, addedViews, originalViews);
+        return true;
+    }
+
+    private static int clamp(int grid) {
+        return Math.max(2, Math.min(MAX_GRID, grid));
+    }
+
+    /*
+     * Index list with every vertex replaced by the first referenced vertex of its grid cell, degenerate triangles dropped
+     */
+    private static int[] collapse(int[] indices, float[] positions, int vertexCount, float[] min, double cellSize, int grid) {
+        int[] representative = new int[vertexCount];
+        Arrays.fill(representative, -1);
+        Map<Long, Integer> cells = new HashMap<>();
+        for (int index : indices) {
+            if (representative[index] < 0) {
+                long x = cell(positions[index * 3], min[0], cellSize, grid);
+                long y = cell(positions[index * 3 + 1], min[1], cellSize, grid);
+                long z = cell(positions[index * 3 + 2], min[2], cellSize, grid);
+                representative[index] = cells.computeIfAbsent(x + grid * (y + grid * z), key -> index);
+            }
+        }
+        int[] collapsed = new int[indices.length];
+        int written = 0;
+        for (int i = 0; i + 2 < indices.length; i += 3) {
+            int a = representative[indices[i]];
+            int b = representative[indices[i + 1]];
+            int c = representative[indices[i + 2]];
+            if (a != b && b != c && a != c) {
+                collapsed[written++] = a;
+                collapsed[written++] = b;
+                collapsed[written++] = c;
+            }
+        }
+        return Arrays.copyOf(collapsed, written);
+    }
+
+    private static long cell(float value, float min, double cellSize, int grid) {
+        return Math.min(grid - 1, (long) ((value - min) / cellSize));
+    }
+
+    /*
+     * Points the primitive at new accessors holding only the vertices the collapsed index list still uses
+     */
+    private static void rewrite(ObjectNode json, byte[] bin, ObjectNode primitive, int[] collapsed, int vertexCount,
+                                float[] positions, List<byte[]> addedViews, int originalViews) throws IOException {
+        ArrayNode accessors = (ArrayNode) json.get("accessors");
+        int[] newIndex = new int[vertexCount];
+        Arrays.fill(newIndex, -1);
+        int[] kept = new int[vertexCount];
+        int keptCount = 0;
+        int[] remapped = new int[collapsed.length];
+        for (int i = 0; i < collapsed.length; i++) {
+            int vertex = collapsed[i];
+            if (newIndex[vertex] < 0) {
+                newIndex[vertex] = keptCount;
+                kept[keptCount++] = vertex;
+            }
+            remapped[i] = newIndex[vertex];
+        }
+
+        ObjectNode attributes = (ObjectNode) primitive.get("attributes");
+        for (Iterator<Map.Entry<String, JsonNode>> it = attributes.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> attribute = it.next();
+            JsonNode accessor = accessors.get(attribute.getValue().asInt());
+            JsonNode view = json.path("bufferViews").path(accessor.path("bufferView").asInt());
+            int elementSize = elementSize(accessor);
+            int stride = view.path("byteStride").asInt(elementSize);
+            int base = view.path("byteOffset").asInt(0) + accessor.path("byteOffset").asInt(0);
+            int outStride = GlbModel.align4(elementSize);
+            byte[] data = new byte[keptCount * outStride];
+            for (int k = 0; k < keptCount; k++) {
+                int from = base + kept[k] * stride;
+                if (from + elementSize > bin.length) {
+                    throw new IOException("Accessor outside the binary chunk");
+                }
+                System.arraycopy(bin, from, data, k * outStride, elementSize);
+            }
+            ObjectNode copy = accessor.deepCopy();
+            copy.put("bufferView", addView(json, addedViews, originalViews, data, ARRAY_BUFFER,
+                    outStride != elementSize ? outStride : 0));
+            copy.remove("byteOffset");
+            copy.put("count", keptCount);
+            copy.remove("min");
+            copy.remove("max");
+            if ("POSITION".equals(attribute.getKey())) {
+                setBounds(copy, positions, kept, keptCount);
+            }
+            accessors.add(copy);
+            attribute.setValue(json.numberNode(accessors.size() - 1));
+        }
+
+        boolean shortIndices = keptCount <= 0xFFFF;
+        ByteBuffer data = ByteBuffer.allocate(remapped.length * (shortIndices ? 2 : 4)).order(ByteOrder.LITTLE_ENDIAN);
+        for (int index : remapped) {
+            if (shortIndices) {
+                data.putShort((short) index);
+            } else {
+                data.putInt(index);
+            }
+        }
+        ObjectNode indexAccessor = json.objectNode()
+                .put("bufferView", addView(json, addedViews, originalViews, data.array(), ELEMENT_ARRAY_BUFFER, 0))
+                .put("componentType", shortIndices ? UNSIGNED_SHORT : UNSIGNED_INT)
+                .put("count", remapped.length)
+                .put("type", "SCALAR");
+        accessors.add(indexAccessor);
+        primitive.put("indices", accessors.size() - 1);
+    }
+
+    private static void setBounds(ObjectNode accessor, float[] positions, int[] kept, int keptCount) {
+        float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+        float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+        for (int k = 0; k < keptCount; k++) {
+            for (int axis = 0; axis < 3; axis++) {
+                min[axis] = Math.min(min[axis], positions[kept[k] * 3 + axis]);
+                max[axis] = Math.max(max[axis], positions[kept[k] * 3 + axis]);
+            }
+        }
+        ArrayNode minNode = accessor.putArray("min");
+        ArrayNode maxNode = accessor.putArray("max");
+        for (int axis = 0; axis < 3; axis++) {
+            minNode.add(min[axis]);
+            maxNode.add(max[axis]);
+        }
+    }
+
+    private static int addView(ObjectNode json, List<byte[]> addedViews, int originalViews, byte[] data,
+                               int target, int byteStride) {
+        ObjectNode view = json.objectNode().put("buffer", 0).put("byteLength", data.length).put("target", target);
+        if (byteStride > 0) {
+            view.put("byteStride", byteStride);
+        }
+        ((ArrayNode) json.get("bufferViews")).add(view);
+        addedViews.add(data);
+        return originalViews + addedViews.size() - 1;
+    }
+
+    private static boolean isPlain(JsonNode accessor) {
+        return accessor.has("bufferView") && !accessor.has("sparse");
+    }
+
+    private static int[] readIndices(ObjectNode json, byte[] bin, JsonNode accessor) throws IOException {
+        int componentType = accessor.path("componentType").asInt();
+        int size = componentType == UNSIGNED_BYTE ? 1 : componentType == UNSIGNED_SHORT ? 2 : componentType == UNSIGNED_INT ? 4 : 0;
+        if (size == 0 || !"SCALAR".equals(accessor.path("type").asText())) {
+            return null;
+        }
+        int count = accessor.path("count").asInt();
+        ByteBuffer view = accessorBytes(json, bin, accessor, count * size);
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = size == 1 ? view.get(i) & 0xFF : size == 2 ? view.getShort(i * 2) & 0xFFFF : view.getInt(i * 4);
+        }
+        return indices;
+    }
+
+    private static float[] readVec3(ObjectNode json, byte[] bin, JsonNode accessor) throws IOException {
+        int count = accessor.path("count").asInt();
+        int stride = json.path("bufferViews").path(accessor.path("bufferView").asInt()).path("byteStride").asInt(12);
+        ByteBuffer view = accessorBytes(json, bin, accessor, count == 0 ? 0 : (count - 1) * stride + 12);
+        float[] values = new float[count * 3];
+        for (int i = 0; i < count; i++) {
+            for (int axis = 0; axis < 3; axis++) {
+                values[i * 3 + axis] = view.getFloat(i * stride + axis * 4);
+            }
+        }
+        return values;
+    }
+
+    private static ByteBuffer accessorBytes(ObjectNode json, byte[] bin, JsonNode accessor, int length) throws IOException {
+        JsonNode view = json.path("bufferViews").path(accessor.path("bufferView").asInt());
+        int start = view.path("byteOffset").asInt(0) + accessor.path("byteOffset").asInt(0);
+        if (start < 0 || length < 0 || start + length > bin.length) {
+            throw new IOException("Accessor outside the binary chunk");
+        }
+        return ByteBuffer.wrap(bin, start, length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int elementSize(JsonNode accessor) {
+        int componentSize;
+        switch (accessor.path("componentType").asInt()) {
+            case 5120:
+            case UNSIGNED_BYTE: componentSize = 1; break;
+            case 5122:
+            case UNSIGNED_SHORT: componentSize = 2; break;
+            default: componentSize = 4;
+        }
+        int components;
+        switch (accessor.path("type").asText()) {
+            case "SCALAR": components = 1; break;
+            case "VEC2": components = 2; break;
+            case "VEC3": components = 3; break;
+            case "VEC4":
+            case "MAT2": components = 4; break;
+            case "MAT3": components = 9; break;
+            default: components = 16;
+        }
+        return componentSize * components;
+    }
+
+    /* ---- output ---- */
+
+    /*
+     * Drops accessors and buffer views nothing references any more (the originals of decimated primitives)
+     * and lays the remaining views out in one new binary chunk
+     */
+    private static byte[] compact(ObjectNode json, byte[] bin, int originalViews, List<byte[]> addedViews,
+                                  Map<Integer, byte[]> replacedViews) throws IOException {
+        ArrayNode accessors = (ArrayNode) json.get("accessors");
+        int[] accessorMap = new int[accessors == null ? 0 : accessors.size()];
+        Arrays.fill(accessorMap, -1);
+        forEachAccessorReference(json, (node, field) -> accessorMap[node.get(field).asInt()] = 0);
+        int accessorCount = 0;
+        ArrayNode keptAccessors = json.arrayNode();
+        for (int i = 0; i < accessorMap.length; i++) {
+            if (accessorMap[i] >= 0) {
+                accessorMap[i] = accessorCount++;
+                keptAccessors.add(accessors.get(i));
+            }
+        }
+        forEachAccessorReference(json, (node, field) -> node.put(field, accessorMap[node.get(field).asInt()]));
+        if (accessors != null) {
+            json.set("accessors", keptAccessors);
+        }
+
+        ArrayNode views = (ArrayNode) json.get("bufferViews");
+        int[] viewMap = new int[views == null ? 0 : views.size()];
+        Arrays.fill(viewMap, -1);
+        Set<Integer> usedViews = new HashSet<>();
+        for (JsonNode accessor : keptAccessors) {
+            markViews(accessor, usedViews);
+        }
+        for (JsonNode image : json.path("images")) {
+            if (image.has("bufferView")) {
+                usedViews.add(image.get("bufferView").asInt());
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bin.length / 2);
+        ArrayNode keptViews = json.arrayNode();
+        for (int i = 0; i < viewMap.length; i++) {
+            if (!usedViews.contains(i)) {
+                continue;
+            }
+            byte[] data = i >= originalViews ? addedViews.get(i - originalViews)
+                    : replacedViews.containsKey(i) ? replacedViews.get(i) : viewBytes(json, bin, i);
+            while (out.size() % 4 != 0) {
+                out.write(0);
+            }
+            ObjectNode view = views.get(i).deepCopy();
+            view.put("buffer", 0).put("byteOffset", out.size()).put("byteLength", data.length);
+            out.write(data);
+            viewMap[i] = keptViews.size();
+            keptViews.add(view);
+        }
+
+        for (JsonNode accessor : keptAccessors) {
+            remapView((ObjectNode) accessor, viewMap);
+            if (accessor.has("sparse")) {
+                remapView((ObjectNode) accessor.path("sparse").path("indices"), viewMap);
+                remapView((ObjectNode) accessor.path("sparse").path("values"), viewMap);
+            }
+        }
+        for (JsonNode image : json.path("images")) {
+            remapView((ObjectNode) image, viewMap);
+        }
+        if (keptViews.isEmpty()) {
+            json.remove("bufferViews");
+            json.remove("buffers");
+        } else {
+            json.set("bufferViews", keptViews);
+            ObjectNode buffer = json.objectNode().put("byteLength", out.size());
+            json.putArray("buffers").add(buffer);
+        }
+        return out.toByteArray();
+    }
+
+    private interface Reference {
+        void visit(ObjectNode node, String field);
+    }
+
+    private static void forEachAccessorReference(ObjectNode json, Reference reference) {
+        for (JsonNode mesh : json.path("meshes")) {
+            for (JsonNode primitive : mesh.path("primitives")) {
+                visitFields(primitive.path("attributes"), reference);
+                visitField(primitive, "indices", reference);
+                for (JsonNode target : primitive.path("targets")) {
+                    visitFields(target, reference);
+                }
+            }
+        }
+        for (JsonNode skin : json.path("skins")) {
+            visitField(skin, "inverseBindMatrices", reference);
+        }
+        for (JsonNode animation : json.path("animations")) {
+            for (JsonNode sampler : animation.path("samplers")) {
+                visitField(sampler, "input", reference);
+                visitField(sampler, "output", reference);
+            }
+        }
+    }
+
+    private static void visitFields(JsonNode node, Reference reference) {
+        if (node.isObject()) {
+            List<String> names = new ArrayList<>();
+            node.fieldNames().forEachRemaining(names::add);
+            for (String name : names) {
+                reference.visit((ObjectNode) node, name);
+            }
+        }
+    }
+
+    private static void visitField(JsonNode node, String field, Reference reference) {
+        if (node.isObject() && node.has(field)) {
+            reference.visit((ObjectNode) node, field);
+        }
+    }
+
+    private static void markViews(JsonNode accessor, Set<Integer> views) {
+        if (accessor.has("bufferView")) {
+            views.add(accessor.get("bufferView").asInt());
+        }
+        JsonNode sparse = accessor.path("sparse");
+        if (sparse.isObject()) {
+            views.add(sparse.path("indices").path("bufferView").asInt());
+            views.add(sparse.path("values").path("bufferView").asInt());
+        }
+    }
+
+    private static void remapView(ObjectNode node, int[] viewMap) {
+        if (node.has("bufferView")) {
+            node.put("bufferView", viewMap[node.get("bufferView").asInt()]);
+        }
+    }
+
+    private static byte[] viewBytes(ObjectNode json, byte[] bin, int index) throws IOException {
+        JsonNode view = json.path("bufferViews").path(index);
+        int start = view.path("byteOffset").asInt(0);
+        int length = view.path("byteLength").asInt();
+        if (start < 0 || length < 0 || start + length > bin.length) {
+            throw new IOException("Buffer view outside the binary chunk");
+        }
+        return Arrays.copyOfRange(bin, start, start + length);
+    }
+}
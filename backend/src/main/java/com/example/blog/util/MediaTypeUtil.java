@@ -0,0 +1,31 @@
+package com.example.blog.util;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public class MediaTypeUtil {
+
+    public static final MediaType MODEL_GLTF_BINARY = MediaType.parseMediaType("model/gltf-binary");
+    public static final MediaType VIDEO_MP4 = MediaType.parseMediaType("video/mp4");
+
+    /*
+     * Resolve the response content type of a proxied Drive file from its file name
+     */
+    public static MediaType fromFileName(String name) {
+        if (name == null) {
+            return MediaType.APPLICATION_OCTET_STREAM;
+        }
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        if (lowerName.endsWith(".jpg") || lowerName.endsWith(".jpeg")) {
+            return MediaType.IMAGE_JPEG;
+        } else if (lowerName.endsWith(".png")) {
+            return MediaType.IMAGE_PNG;
+        } else if (lowerName.endsWith(".glb")) {
+            return MODEL_GLTF_BINARY;
+        } else if (lowerName.endsWith(".mp4")) {
+            return VIDEO_MP4;
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+}
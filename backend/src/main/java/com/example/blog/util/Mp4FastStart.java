@@ -0,0 +1,222 @@
+package com.example.blog.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/*
+ * Moves the moov box of an MP4 in front of its media data ("fast start"), so a player can start after reading
+ * the first few hundred KB instead of fetching the end of the file first. Sample data is copied unchanged;
+ * only the chunk offset tables (stco/co64) in moov are shifted, and stco is widened to co64 where an offset
+ * would no longer fit in 32 bits.
+ */
+public final class Mp4FastStart {
+
+    /* boxes on the path from moov to the chunk offset tables */
+    private static final Set<String> CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+    /* moov is rewritten in memory; real files stay far below this */
+    private static final long MAX_MOOV_SIZE = 64L * 1024 * 1024;
+
+    private Mp4FastStart() {
+    }
+
+    /**
+     * Writes the fast-start layout of source to target.
+     * @return false, leaving target untouched, when the file is already fast-start, fragmented or not an MP4
+     */
+    public static boolean rewrite(Path source, Path target) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            List<Box> boxes = topLevelBoxes(in);
+            Box moov = null;
+            Box firstMdat = null;
+            for (Box box : boxes) {
+                if ("moof".equals(box.type)) {
+                    return false;
+                } else if ("moov".equals(box.type) && moov == null) {
+                    moov = box;
+                } else if ("mdat".equals(box.type) && firstMdat == null) {
+                    firstMdat = box;
+                }
+            }
+            if (moov == null || firstMdat == null || moov.offset < firstMdat.offset || moov.size > MAX_MOOV_SIZE) {
+                return false;
+            }
+
+            ByteBuffer original = ByteBuffer.allocate((int) moov.size);
+            readFully(in, original, moov.offset);
+            byte[] patched = patchMoov(original.array(), moov, firstMdat.offset);
+
+            try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                transfer(in, 0, firstMdat.offset, out);
+                out.write(ByteBuffer.wrap(patched));
+                transfer(in, firstMdat.offset, moov.offset - firstMdat.offset, out);
+                transfer(in, moov.offset + moov.size, in.size() - moov.offset - moov.size, out);
+            }
+            return true;
+        }
+    }
+
+    private static final class Box {
+        private final String type;
+        private final long offset;
+        private final long size;
+        private final int headerSize;
+
+        private Box(String type, long offset, long size, int headerSize) {
+            this.type = type;
+            this.offset = offset;
+            this.size = size;
+            this.headerSize = headerSize;
+        }
+    }
+
+    private static List<Box> topLevelBoxes(FileChannel in) throws IOException {
+        List<Box> boxes = new ArrayList<>();
+        long fileSize = in.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(16);
+        while (position + 8 <= fileSize) {
+            header.clear().limit((int) Math.min(16, fileSize - position));
+            readFully(in, header, position);
+            Box box = box(header, position, fileSize - position);
+            if (box == null) {
+                throw new IOException("Malformed MP4 box at " + position);
+            }
+            boxes.add(box);
+            position += box.size;
+        }
+        return boxes;
+    }
+
+    /*
+     * Box whose header starts at buffer position 0; size 0 means "to the end of the parent"
+     */
+    private static Box box(ByteBuffer buffer, long offset, long remaining) {
+        if (buffer.limit() < 8) {
+            return null;
+        }
+        long size = Integer.toUnsignedLong(buffer.getInt(0));
+        String type = new String(buffer.array(), buffer.arrayOffset() + 4, 4, StandardCharsets.ISO_8859_1);
+        int headerSize = 8;
+        if (size == 1) {
+            if (buffer.limit() < 16) {
+                return null;
+            }
+            size = buffer.getLong(8);
+            headerSize = 16;
+        } else if (size == 0) {
+            size = remaining;
+        }
+        return size < headerSize || size > remaining ? null : new Box(type, offset, size, headerSize);
+    }
+
+    /*
+     * The patched moov goes where the first mdat starts; its size decides how far the media data moves,
+     * and widening stco tables changes that size, so the patch is repeated until the size is stable
+     */
+    private static byte[] patchMoov(byte[] moov, Box original, long insertAt) throws IOException {
+        long newSize = original.size;
+        for (int attempt = 0; attempt < 4; attempt++) {
+            long size = newSize;
+            long moovEnd = original.offset + original.size;
+            OffsetShift shift = offset -> offset >= moovEnd ? offset - original.size + size
+                    : offset >= insertAt ? offset + size
+                    : offset;
+            byte[] patched = writeBox("moov", children(ByteBuffer.wrap(moov), original.headerSize, moov.length, shift));
+            if (patched.length == size) {
+                return patched;
+            }
+            newSize = patched.length;
+        }
+        throw new IOException("Chunk offsets did not converge");
+    }
+
+    @FunctionalInterface
+    private interface OffsetShift {
+        long apply(long offset);
+    }
+
+    private static byte[] children(ByteBuffer parent, int from, int to, OffsetShift shift) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(to - from + 1024);
+        int position = from;
+        while (position + 8 <= to) {
+            ByteBuffer slice = ByteBuffer.wrap(parent.array(), position, to - position).slice();
+            Box box = box(slice, position, to - position);
+            if (box == null) {
+                throw new IOException("Malformed MP4 box in moov at " + position);
+            }
+            int start = position + box.headerSize;
+            int end = (int) (position + box.size);
+            if (CONTAINERS.contains(box.type)) {
+                out.write(writeBox(box.type, children(parent, start, end, shift)));
+            } else if ("stco".equals(box.type) || "co64".equals(box.type)) {
+                out.write(chunkOffsets(parent, start, end, "co64".equals(box.type), shift));
+            } else {
+                out.write(parent.array(), position, end - position);
+            }
+            position = end;
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] chunkOffsets(ByteBuffer parent, int start, int end, boolean wide, OffsetShift shift)
+            throws IOException {
+        if (end - start < 8) {
+            throw new IOException("Truncated chunk offset table");
+        }
+        int versionAndFlags = parent.getInt(start);
+        long count = Integer.toUnsignedLong(parent.getInt(start + 4));
+        if (start + 8 + count * (wide ? 8 : 4) > end) {
+            throw new IOException("Truncated chunk offset table");
+        }
+        long[] offsets = new long[(int) count];
+        boolean needsWide = wide;
+        for (int i = 0; i < count; i++) {
+            long offset = wide ? parent.getLong(start + 8 + i * 8) : Integer.toUnsignedLong(parent.getInt(start + 8 + i * 4));
+            offsets[i] = shift.apply(offset);
+            needsWide |= offsets[i] > 0xFFFFFFFFL;
+        }
+        ByteBuffer body = ByteBuffer.allocate(8 + offsets.length * (needsWide ? 8 : 4));
+        body.putInt(versionAndFlags).putInt(offsets.length);
+        for (long offset : offsets) {
+            if (needsWide) {
+                body.putLong(offset);
+            } else {
+                body.putInt((int) offset);
+            }
+        }
+        return writeBox(needsWide ? "co64" : "stco", body.array());
+    }
+
+    private static byte[] writeBox(String type, byte[] content) {
+        ByteBuffer box = ByteBuffer.allocate(8 + content.length);
+        box.putInt(8 + content.length).put(type.getBytes(StandardCharsets.ISO_8859_1)).put(content);
+        return box.array();
+    }
+
+    private static void readFully(FileChannel in, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of MP4 file");
+            }
+        }
+    }
+
+    private static void transfer(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long done = 0;
+        while (done < count) {
+            long transferred = in.transferTo(position + done, count - done, out);
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of MP4 file");
+            }
+            done += transferred;
+        }
+    }
+}
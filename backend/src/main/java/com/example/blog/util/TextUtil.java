@@ -0,0 +1,276 @@
+package com.example.blog.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/*
+ * Allocation-light string helpers for per-request and write paths (search keys, excerpts, Drive ids).
+ * Patterns are compiled once; folding is a table lookup per char with the Normalizer path kept only as fallback.
+ */
+public final class TextUtil {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /* Table covers Latin, Latin Extended Additional (Vietnamese), Greek/Cyrillic and general punctuation */
+    private static final int TABLE_SIZE = 0x3000;
+    private static final char REMOVE = '\uFFFF';
+    private static final char SLOW_PATH = '\uFFFE';
+    private static final char[] FOLD_TABLE = buildFoldTable();
+
+    private static final int MIN_DRIVE_ID_LENGTH = 25;
+
+    private TextUtil() {
+    }
+
+    /**
+     * Lower-case, diacritic-free search key, e.g. "Đắk Lắk" -> "dak lak".
+     * Same result as NFD + stripping combining marks + đ/Đ -> d + lower-casing (Locale.ROOT), without the NFD pass
+     * for text made only of characters the table knows.
+     */
+    public static String foldVietnamese(String s) {
+        if (s == null) return null;
+        int length = s.length();
+        char[] out = null;
+        int written = 0;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            char folded = c < TABLE_SIZE ? FOLD_TABLE[c] : SLOW_PATH;
+            if (folded == SLOW_PATH) {
+                return foldWithNormalizer(s);
+            }
+            if (out == null) {
+                if (folded == c) {
+                    continue;
+                }
+                out = new char[length];
+                s.getChars(0, i, out, 0);
+                written = i;
+            }
+            if (folded != REMOVE) {
+                out[written++] = folded;
+            }
+        }
+        return out == null ? s : new String(out, 0, written);
+    }
+
+    /**
+     * First run of at least 25 characters from [-A-Za-z0-9_], i.e. what the pattern [-\w]{25,} finds:
+     * a Drive file id inside a Drive link, or the id itself
+     */
+    public static String extractDriveId(String s) {
+        if (s == null) return null;
+        int runStart = -1;
+        int length = s.length();
+        for (int i = 0; i <= length; i++) {
+            if (i < length && isDriveIdChar(s.charAt(i))) {
+                if (runStart < 0) runStart = i;
+            } else if (runStart >= 0) {
+                if (i - runStart >= MIN_DRIVE_ID_LENGTH) {
+                    return runStart == 0 && i == length ? s : s.substring(runStart, i);
+                }
+                runStart = -1;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Google CDN thumbnail (220 px) of the Drive file in the link or id s; s itself when it holds no Drive id
+     */
+    public static String driveThumbnailUrl(String s) {
+        String fileId = extractDriveId(s);
+        return fileId != null ? "https://lh3.googleusercontent.com/drive-storage/" + fileId + "=s220" : s;
+    }
+
+    /**
+     * Visible text of CKEditor HTML: tags dropped (script/style with their content), common entities decoded,
+     * whitespace collapsed to single spaces
+     */
+    public static String htmlToText(String html) {
+        if (html == null) return null;
+        int length = html.length();
+        StringBuilder text = new StringBuilder(Math.min(length, 4096));
+        boolean pendingSpace = false;
+        int i = 0;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                int close = html.indexOf('>', i + 1);
+                if (close < 0) break;
+                String skipUntil = rawTextEnd(html, i + 1);
+                i = close + 1;
+                if (skipUntil != null) {
+                    int end = indexOfIgnoreCase(html, skipUntil, i);
+                    int tagEnd = end < 0 ? -1 : html.indexOf('>', end);
+                    i = tagEnd < 0 ? length : tagEnd + 1;
+                }
+                pendingSpace = true;
+                continue;
+            }
+            if (c == '&') {
+                int semicolon = indexOf(html, ';', i + 1, Math.min(length, i + 11));
+                if (semicolon > 0) {
+                    int decoded = decodeEntity(html, i + 1, semicolon);
+                    if (decoded >= 0) {
+                        c = (char) decoded;
+                        i = semicolon;
+                    }
+                }
+            }
+            i++;
+            if (Character.isWhitespace(c) || c == '\u00A0') {
+                pendingSpace = true;
+                continue;
+            }
+            if (pendingSpace && text.length() > 0) {
+                text.append(' ');
+            }
+            pendingSpace = false;
+            text.append(c);
+        }
+        return text.toString();
+    }
+
+    /**
+     * src of the first &lt;img&gt; in the HTML, or null; the cover picture of a post in list views
+     */
+    public static String firstImageSrc(String html) {
+        if (html == null) return null;
+        int tag = indexOfIgnoreCase(html, "<img", 0);
+        while (tag >= 0) {
+            int tagEnd = html.indexOf('>', tag);
+            if (tagEnd < 0) return null;
+            int src = indexOfIgnoreCase(html, " src=", tag, tagEnd);
+            if (src >= 0 && ++src + 4 < tagEnd) {
+                char quote = html.charAt(src + 4);
+                if (quote == '"' || quote == '\'') {
+                    int close = html.indexOf(quote, src + 5);
+                    if (close > 0 && close < tagEnd) {
+                        return html.substring(src + 5, close);
+                    }
+                } else {
+                    int end = src + 4;
+                    while (end < tagEnd && !Character.isWhitespace(html.charAt(end))) end++;
+                    if (end > src + 4 && html.charAt(end - 1) == '/') end--;
+                    return html.substring(src + 4, end);
+                }
+            }
+            tag = indexOfIgnoreCase(html, "<img", tagEnd);
+        }
+        return null;
+    }
+
+    /**
+     * At most maxLength chars of plain text, cut at a word boundary and marked with an ellipsis when shortened
+     */
+    public static String excerpt(String text, int maxLength) {
+        if (text == null || text.length() <= maxLength) return text;
+        int cut = text.lastIndexOf(' ', maxLength);
+        if (cut < maxLength / 2) cut = maxLength;
+        return text.substring(0, cut).stripTrailing() + "…";
+    }
+
+    /**
+     * Distinct folded words of the given texts in first-seen order, capped at maxTokens;
+     * the stored side of prefix search (see PostServiceImpl.getList)
+     */
+    public static List<String> searchTokens(int maxTokens, String... texts) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String text : texts) {
+            String folded = foldVietnamese(text);
+            if (folded == null) continue;
+            int start = -1;
+            for (int i = 0; i <= folded.length() && tokens.size() < maxTokens; i++) {
+                boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+                if (wordChar && start < 0) {
+                    start = i;
+                } else if (!wordChar && start >= 0) {
+                    tokens.add(folded.substring(start, i));
+                    start = -1;
+                }
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static String rawTextEnd(String html, int nameStart) {
+        if (html.regionMatches(true, nameStart, "script", 0, 6)) return "</script";
+        if (html.regionMatches(true, nameStart, "style", 0, 5)) return "</style";
+        return null;
+    }
+
+    private static int indexOf(String s, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) == c) return i;
+        }
+        return -1;
+    }
+
+    private static int indexOfIgnoreCase(String s, String needle, int from) {
+        return indexOfIgnoreCase(s, needle, from, s.length());
+    }
+
+    private static int indexOfIgnoreCase(String s, String needle, int from, int to) {
+        for (int i = from; i <= to - needle.length(); i++) {
+            if (s.regionMatches(true, i, needle, 0, needle.length())) return i;
+        }
+        return -1;
+    }
+
+    private static int decodeEntity(String html, int start, int end) {
+        if (html.charAt(start) == '#') {
+            try {
+                boolean hex = start + 1 < end && (html.charAt(start + 1) == 'x' || html.charAt(start + 1) == 'X');
+                int code = hex ? Integer.parseInt(html.substring(start + 2, end), 16)
+                               : Integer.parseInt(html.substring(start + 1, end));
+                return code <= Character.MAX_VALUE ? code : -1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        switch (html.substring(start, end)) {
+            case "nbsp": return ' ';
+            case "amp": return '&';
+            case "lt": return '<';
+            case "gt": return '>';
+            case "quot": return '"';
+            case "apos": return '\'';
+            default: return -1;
+        }
+    }
+
+    private static boolean isDriveIdChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '-' || c == '_';
+    }
+
+    private static String foldWithNormalizer(String s) {
+        String noMarks = COMBINING_MARKS.matcher(Normalizer.normalize(s, Normalizer.Form.NFD)).replaceAll("");
+        return noMarks.replace('đ', 'd').replace('Đ', 'D').toLowerCase(Locale.ROOT);
+    }
+
+    /*
+     * Each entry is derived from foldWithNormalizer itself, so the two paths cannot disagree.
+     * Chars whose result is not a single char (Hangul, ligatures) or depends on context (final sigma) take the slow path.
+     */
+    private static char[] buildFoldTable() {
+        char[] table = new char[TABLE_SIZE];
+        for (int c = 0; c < TABLE_SIZE; c++) {
+            String folded = foldWithNormalizer(String.valueOf((char) c));
+            if (c == '\u03A3' || Character.isSurrogate((char) c)) {
+                table[c] = SLOW_PATH;
+            } else if (folded.isEmpty()) {
+                table[c] = REMOVE;
+            } else if (folded.length() == 1 && folded.charAt(0) < SLOW_PATH) {
+                table[c] = folded.charAt(0);
+            } else {
+                table[c] = SLOW_PATH;
+            }
+        }
+        return table;
+    }
+}
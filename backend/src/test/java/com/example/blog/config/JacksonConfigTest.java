@@ -0,0 +1,102 @@
+package com.example.blog.config;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/*
+ * Spring MVC writes with the first converter in Boot's HttpMessageConverters list that accepts the negotiated type,
+ * so the binary converters must take the place of the MVC defaults, not follow them
+ */
+class JacksonConfigTest {
+
+    private static final MediaType SMILE = MediaType.parseMediaType("application/x-jackson-smile");
+
+    private final JacksonConfig config = new JacksonConfig(bootObjectMapperBuilder(), true);
+    private final MappingJackson2SmileHttpMessageConverter smileBean = config.smileHttpMessageConverter();
+    private final MappingJackson2CborHttpMessageConverter cborBean = config.cborHttpMessageConverter();
+    private final List<HttpMessageConverter<?>> converters =
+            new HttpMessageConverters(smileBean, cborBean).getConverters();
+
+    @Test
+    void smileRequestsUseSharedStringValues() {
+        HttpMessageConverter<?> selected = selected(SMILE);
+
+        assertSame(smileBean, selected);
+        SmileFactory factory = (SmileFactory) smileBean.getObjectMapper().getFactory();
+        assertTrue(factory.isEnabled(SmileGenerator.Feature.CHECK_SHARED_NAMES));
+        assertTrue(factory.isEnabled(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES));
+        assertSameSettingsAsJson(smileBean);
+    }
+
+    @Test
+    void cborRequestsUseStringRefsWhenEnabled() {
+        HttpMessageConverter<?> selected = selected(MediaType.APPLICATION_CBOR);
+
+        assertSame(cborBean, selected);
+        CBORFactory factory = (CBORFactory) cborBean.getObjectMapper().getFactory();
+        assertTrue(factory.isEnabled(CBORGenerator.Feature.STRINGREF));
+        assertSameSettingsAsJson(cborBean);
+    }
+
+    @Test
+    void anyTypeStillNegotiatesToJson() {
+        assertInstanceOf(MappingJackson2HttpMessageConverter.class, selected(MediaType.ALL));
+    }
+
+    @Test
+    void defaultBinaryConvertersAreReplaced() {
+        assertEquals(1, converters.stream().filter(MappingJackson2SmileHttpMessageConverter.class::isInstance).count());
+        assertEquals(1, converters.stream().filter(MappingJackson2CborHttpMessageConverter.class::isInstance).count());
+    }
+
+    private HttpMessageConverter<?> selected(MediaType mediaType) {
+        return converters.stream()
+                .filter(converter -> converter.canWrite(Object.class, mediaType))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    /* spring.jackson.* reaches the binary mappers through Boot's builder */
+    private static void assertSameSettingsAsJson(AbstractJackson2HttpMessageConverter converter) {
+        assertFalse(converter.getObjectMapper().isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        assertEquals(JsonInclude.Include.NON_NULL,
+                converter.getObjectMapper().getSerializationConfig().getDefaultPropertyInclusion().getValueInclusion());
+    }
+
+    /* prototype builder with what spring.jackson.* in application.properties and Boot's defaults apply */
+    private static ObjectProvider<Jackson2ObjectMapperBuilder> bootObjectMapperBuilder() {
+        DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+        RootBeanDefinition builder = new RootBeanDefinition(Jackson2ObjectMapperBuilder.class,
+                () -> Jackson2ObjectMapperBuilder.json()
+                        .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                        .serializationInclusion(JsonInclude.Include.NON_NULL));
+        builder.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        beans.registerBeanDefinition("jacksonObjectMapperBuilder", builder);
+        return beans.getBeanProvider(Jackson2ObjectMapperBuilder.class);
+    }
+}
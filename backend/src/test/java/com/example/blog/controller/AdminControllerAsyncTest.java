@@ -0,0 +1,101 @@
+package com.example.blog.controller;
+
+import com.example.blog.dto.UserDto;
+import com.example.blog.enums.Roles;
+import com.example.blog.model.User;
+import com.example.blog.repository.UserRepository;
+import com.example.blog.security.JwtAuthFilter;
+import com.example.blog.security.JwtService;
+import com.example.blog.security.PasswordHashingExecutor;
+import com.example.blog.security.PrometheusScrapeAuthorization;
+import com.example.blog.security.SecurityConfig;
+import com.example.blog.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/*
+ * The manager handlers return CompletableFuture; their response is written in an ASYNC re-dispatch,
+ * which must still be authorized for a caller that only sent its JWT with the original request.
+ */
+@WebMvcTest(AdminController.class)
+@Import({SecurityConfig.class, JwtAuthFilter.class, JwtService.class, PasswordHashingExecutor.class,
+        PrometheusScrapeAuthorization.class})
+@TestPropertySource(properties = "jwt.secret=0123456789abcdef0123456789abcdef0123456789abcdef")
+class AdminControllerAsyncTest {
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JwtService jwtService;
+    @MockBean
+    private UserRepository userRepository;
+    @MockBean
+    private UserService userService;
+
+    @BeforeEach
+    void admin() {
+        User admin = User.builder().id("admin-id").username("admin").password("x")
+                .roles(Set.of(Roles.ADMIN)).enabled(true).build();
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(admin));
+    }
+
+    @Test
+    void adminUpdateCompletesAfterAsyncDispatch() throws Exception {
+        UserDto updated = UserDto.builder().id("m1").username("manager").email("manager@example.com").build();
+        when(userService.updateManager(eq("m1"), any(UserDto.class))).thenReturn(updated);
+
+        MvcResult started = mockMvc.perform(put("/api/admin/users/m1")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generate("admin", List.of(Roles.ADMIN)))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"manager\",\"email\":\"manager@example.com\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value("m1"));
+    }
+
+    @Test
+    void anonymousUpdateIsRejectedBeforeTheHandlerRuns() throws Exception {
+        mockMvc.perform(put("/api/admin/users/m1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"manager\",\"email\":\"manager@example.com\"}"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().is4xxClientError());
+    }
+}
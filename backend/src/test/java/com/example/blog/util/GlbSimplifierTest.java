@@ -0,0 +1,180 @@
+package com.example.blog.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GlbSimplifierTest {
+
+    private static final int FLOAT = 5126;
+    private static final int UNSIGNED_SHORT = 5123;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void decimatesIndexedMeshIntoValidGlb() throws IOException {
+        GlbModel source = GlbModel.read(sphere(48, 24).write(objectMapper), objectMapper);
+
+        GlbSimplifier.Result result = GlbSimplifier.simplify(source, 0.1, 256, 0.8f);
+
+        assertNotNull(result);
+        assertEquals(GlbSimplifier.triangleCount(source), result.getSourceTriangles());
+        assertTrue(result.getPreviewTriangles() > 0, "preview lost every triangle");
+        assertTrue(result.getPreviewTriangles() < result.getSourceTriangles() / 2, "preview was not decimated");
+
+        GlbModel preview = GlbModel.read(result.getModel().write(objectMapper), objectMapper);
+        assertEquals(result.getPreviewTriangles(), GlbSimplifier.triangleCount(preview));
+        assertValid(preview);
+    }
+
+    @Test
+    void leavesSmallMeshWithoutPreview() throws IOException {
+        GlbModel source = GlbModel.read(sphere(8, 4).write(objectMapper), objectMapper);
+
+        assertNull(GlbSimplifier.simplify(source, 0.1, 256, 0.8f));
+    }
+
+    @Test
+    void readsFileLikeBytes() throws IOException {
+        byte[] glb = sphere(48, 24).write(objectMapper);
+        Path file = Files.createTempFile("model", ".glb");
+        try {
+            Files.write(file, glb);
+            GlbModel fromFile = GlbModel.read(file, objectMapper);
+            GlbModel fromBytes = GlbModel.read(glb, objectMapper);
+
+            assertEquals(fromBytes.json(), fromFile.json());
+            assertArrayEquals(fromBytes.bin(), fromFile.bin());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /*
+     * Every accessor fits its buffer view, every view fits the binary chunk and every index names a vertex
+     */
+    private static void assertValid(GlbModel model) {
+        JsonNode json = model.json();
+        int binLength = model.bin().length;
+        assertEquals(1, json.path("buffers").size());
+        assertTrue(json.path("buffers").get(0).path("byteLength").asInt() <= binLength, "buffer longer than BIN chunk");
+        JsonNode views = json.path("bufferViews");
+        for (JsonNode view : views) {
+            assertTrue(view.path("byteOffset").asInt(0) + view.path("byteLength").asInt() <= binLength,
+                    "buffer view outside BIN chunk");
+        }
+        JsonNode accessors = json.path("accessors");
+        for (JsonNode accessor : accessors) {
+            int viewIndex = accessor.path("bufferView").asInt(-1);
+            assertTrue(viewIndex >= 0 && viewIndex < views.size(), "accessor references missing view " + viewIndex);
+            JsonNode view = views.get(viewIndex);
+            int elementSize = elementSize(accessor);
+            int stride = view.path("byteStride").asInt(elementSize);
+            int count = accessor.path("count").asInt();
+            assertTrue(accessor.path("byteOffset").asInt(0) + (count - 1) * stride + elementSize <= view.path("byteLength").asInt(),
+                    "accessor outside its buffer view");
+        }
+        for (JsonNode mesh : json.path("meshes")) {
+            for (JsonNode primitive : mesh.path("primitives")) {
+                JsonNode position = accessors.get(primitive.path("attributes").path("POSITION").asInt());
+                JsonNode normal = accessors.get(primitive.path("attributes").path("NORMAL").asInt());
+                assertEquals(position.path("count").asInt(), normal.path("count").asInt());
+                JsonNode indices = accessors.get(primitive.path("indices").asInt());
+                ByteBuffer data = viewData(model, views.get(indices.path("bufferView").asInt()));
+                int size = indices.path("componentType").asInt() == UNSIGNED_SHORT ? 2 : 4;
+                for (int i = 0; i < indices.path("count").asInt(); i++) {
+                    int index = size == 2 ? data.getShort(i * 2) & 0xFFFF : data.getInt(i * 4);
+                    assertTrue(index < position.path("count").asInt(), "index " + index + " past the last vertex");
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer viewData(GlbModel model, JsonNode view) {
+        return ByteBuffer.wrap(model.bin(), view.path("byteOffset").asInt(0), view.path("byteLength").asInt())
+                .slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static int elementSize(JsonNode accessor) {
+        int componentSize = accessor.path("componentType").asInt() == UNSIGNED_SHORT ? 2 : 4;
+        return componentSize * ("VEC3".equals(accessor.path("type").asText()) ? 3 : 1);
+    }
+
+    /*
+     * Unit UV sphere with separate POSITION and NORMAL views and an unsigned short index view
+     */
+    private GlbModel sphere(int segments, int rings) {
+        int vertexCount = (segments + 1) * (rings + 1);
+        ByteBuffer positions = ByteBuffer.allocate(vertexCount * 12).order(ByteOrder.LITTLE_ENDIAN);
+        for (int ring = 0; ring <= rings; ring++) {
+            double theta = Math.PI * ring / rings;
+            for (int segment = 0; segment <= segments; segment++) {
+                double phi = 2 * Math.PI * segment / segments;
+                positions.putFloat((float) (Math.sin(theta) * Math.cos(phi)))
+                        .putFloat((float) Math.cos(theta))
+                        .putFloat((float) (Math.sin(theta) * Math.sin(phi)));
+            }
+        }
+        int indexCount = segments * rings * 6;
+        ByteBuffer indices = ByteBuffer.allocate(indexCount * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int ring = 0; ring < rings; ring++) {
+            for (int segment = 0; segment < segments; segment++) {
+                int a = ring * (segments + 1) + segment;
+                int b = a + segments + 1;
+                indices.putShort((short) a).putShort((short) b).putShort((short) (a + 1));
+                indices.putShort((short) (a + 1)).putShort((short) b).putShort((short) (b + 1));
+            }
+        }
+        // a unit sphere's normals equal its positions
+        int vertexBytes = positions.capacity();
+        byte[] bin = new byte[vertexBytes * 2 + indices.capacity()];
+        System.arraycopy(positions.array(), 0, bin, 0, vertexBytes);
+        System.arraycopy(positions.array(), 0, bin, vertexBytes, vertexBytes);
+        System.arraycopy(indices.array(), 0, bin, vertexBytes * 2, indices.capacity());
+
+        ObjectNode json = objectMapper.createObjectNode();
+        json.putObject("asset").put("version", "2.0");
+        json.put("scene", 0);
+        json.putArray("scenes").addObject().putArray("nodes").add(0);
+        json.putArray("nodes").addObject().put("mesh", 0);
+        ObjectNode primitive = json.putArray("meshes").addObject().putArray("primitives").addObject();
+        primitive.putObject("attributes").put("POSITION", 0).put("NORMAL", 1);
+        primitive.put("indices", 2);
+        json.putArray("buffers").addObject().put("byteLength", bin.length);
+        json.putArray("bufferViews")
+                .add(view(0, vertexBytes))
+                .add(view(vertexBytes, vertexBytes))
+                .add(view(vertexBytes * 2, indices.capacity()));
+        ObjectNode position = vec3(0, vertexCount);
+        position.putArray("min").add(-1).add(-1).add(-1);
+        position.putArray("max").add(1).add(1).add(1);
+        json.putArray("accessors")
+                .add(position)
+                .add(vec3(1, vertexCount))
+                .add(objectMapper.createObjectNode().put("bufferView", 2).put("componentType", UNSIGNED_SHORT)
+                        .put("count", indexCount).put("type", "SCALAR"));
+        return new GlbModel(json, bin);
+    }
+
+    private ObjectNode view(int byteOffset, int byteLength) {
+        return objectMapper.createObjectNode().put("buffer", 0).put("byteOffset", byteOffset).put("byteLength", byteLength);
+    }
+
+    private ObjectNode vec3(int bufferView, int count) {
+        return objectMapper.createObjectNode().put("bufferView", bufferView).put("componentType", FLOAT)
+                .put("count", count).put("type", "VEC3");
+    }
+}
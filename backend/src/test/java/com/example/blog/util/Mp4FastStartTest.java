@@ -0,0 +1,143 @@
+package com.example.blog.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Mp4FastStartTest {
+
+    private static final byte[] FTYP = box("ftyp", "isom".getBytes(StandardCharsets.ISO_8859_1), new byte[4]);
+    private static final byte[] FIRST_CHUNK = pattern(1000, 7);
+    private static final byte[] SECOND_CHUNK = pattern(600, 13);
+    private static final Set<String> CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void movesMoovInFrontAndShiftsStcoOffsets() throws IOException {
+        assertChunksStayReachable(false);
+    }
+
+    @Test
+    void movesMoovInFrontAndShiftsCo64Offsets() throws IOException {
+        assertChunksStayReachable(true);
+    }
+
+    @Test
+    void leavesFastStartFileAlone() throws IOException {
+        // mdat follows ftyp + moov, so the chunks start after both
+        int mdatData = FTYP.length + moov(new long[] {0, 0}, false).length + 8;
+        byte[] moov = moov(new long[] {mdatData, mdatData + FIRST_CHUNK.length}, false);
+        Path source = write("source.mp4", concat(FTYP, moov, box("mdat", FIRST_CHUNK, SECOND_CHUNK)));
+        Path target = dir.resolve("target.mp4");
+
+        assertFalse(Mp4FastStart.rewrite(source, target));
+        assertFalse(Files.exists(target));
+    }
+
+    private void assertChunksStayReachable(boolean wide) throws IOException {
+        int mdatData = FTYP.length + 8;
+        long[] offsets = {mdatData, mdatData + FIRST_CHUNK.length};
+        byte[] original = concat(FTYP, box("mdat", FIRST_CHUNK, SECOND_CHUNK), moov(offsets, wide));
+        Path source = write("source.mp4", original);
+        Path target = dir.resolve("target.mp4");
+
+        assertTrue(Mp4FastStart.rewrite(source, target));
+
+        byte[] rewritten = Files.readAllBytes(target);
+        assertEquals(original.length, rewritten.length);
+        assertEquals("ftyp", typeAt(rewritten, 0));
+        assertEquals("moov", typeAt(rewritten, FTYP.length));
+        int table = find(rewritten, FTYP.length, wide ? "co64" : "stco");
+        long[] patched = chunkOffsets(rewritten, table, wide);
+        assertEquals(2, patched.length);
+        assertArrayEquals(FIRST_CHUNK, Arrays.copyOfRange(rewritten, (int) patched[0], (int) patched[0] + FIRST_CHUNK.length));
+        assertArrayEquals(SECOND_CHUNK, Arrays.copyOfRange(rewritten, (int) patched[1], (int) patched[1] + SECOND_CHUNK.length));
+    }
+
+    private Path write(String name, byte[] data) throws IOException {
+        return Files.write(dir.resolve(name), data);
+    }
+
+    /* moov > trak > mdia > minf > stbl > stco|co64, the path Mp4FastStart rewrites */
+    private static byte[] moov(long[] offsets, boolean wide) {
+        ByteBuffer table = ByteBuffer.allocate(8 + offsets.length * (wide ? 8 : 4));
+        table.putInt(0).putInt(offsets.length);
+        for (long offset : offsets) {
+            if (wide) {
+                table.putLong(offset);
+            } else {
+                table.putInt((int) offset);
+            }
+        }
+        byte[] stbl = box("stbl", box("stsz", new byte[12]), box(wide ? "co64" : "stco", table.array()));
+        return box("moov", box("mvhd", new byte[100]), box("trak", box("mdia", box("minf", stbl))));
+    }
+
+    private static byte[] box(String type, byte[]... content) {
+        byte[] body = concat(content);
+        return concat(ByteBuffer.allocate(8).putInt(8 + body.length).put(type.getBytes(StandardCharsets.ISO_8859_1)).array(), body);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] pattern(int length, int seed) {
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++) {
+            data[i] = (byte) (i * seed + 1);
+        }
+        return data;
+    }
+
+    private static String typeAt(byte[] data, int offset) {
+        return new String(data, offset + 4, 4, StandardCharsets.ISO_8859_1);
+    }
+
+    /*
+     * Offset of the first box of the given type inside the box at offset, searched depth first
+     */
+    private static int find(byte[] data, int offset, String type) {
+        int end = offset + ByteBuffer.wrap(data).getInt(offset);
+        int position = offset + 8;
+        while (position + 8 <= end) {
+            if (typeAt(data, position).equals(type)) {
+                return position;
+            }
+            int nested = CONTAINERS.contains(typeAt(data, position)) ? find(data, position, type) : -1;
+            if (nested >= 0) {
+                return nested;
+            }
+            position += ByteBuffer.wrap(data).getInt(position);
+        }
+        return -1;
+    }
+
+    private static long[] chunkOffsets(byte[] data, int box, boolean wide) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        long[] offsets = new long[buffer.getInt(box + 12)];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = wide ? buffer.getLong(box + 16 + i * 8) : Integer.toUnsignedLong(buffer.getInt(box + 16 + i * 4));
+        }
+        return offsets;
+    }
+}
@@ -1,5 +1,5 @@
 import React, { useState, useEffect } from 'react';
-import { setToken, isTokenValid, clearAuthData, getMe, updateMe } from './api';
+import { setToken, isTokenValid, clearAuthData, getMe, updateMe, getPost } from './api';
 import { Link, Navigate, Route, Routes, useNavigate, useLocation } from 'react-router-dom';
 import { useToast } from './utils/toastContext';
 import LoginForm from './cms/LoginForm';
@@ -90,21 +90,22 @@ export default function CMS() {
     navigate('posts');
   };
 
-  const handleEditPost = (post) => {
-    setEditingPost(post);
+  // list rows are summaries without the HTML body, so the full post is loaded before viewing or editing
+  const handleEditPost = async (post) => {
+    setEditingPost(await getPost(post.id));
     navigate(`posts/edit/${post.id}`);
     window.scrollTo({ top: 0, behavior: 'smooth' });
   };
 
-  const handleEditPost2 = (post) => {
+  const handleEditPost2 = async (post) => {
     setEditorType('quill');
-    setEditingPost(post);
+    setEditingPost(await getPost(post.id));
     navigate(`posts/edit/${post.id}`);
     window.scrollTo({ top: 0, behavior: 'smooth' });
   };
 
-  const handleViewPost = (post) => {
-    setViewingPost(post);
+  const handleViewPost = async (post) => {
+    setViewingPost(await getPost(post.id));
     navigate('posts/view');
   };
 
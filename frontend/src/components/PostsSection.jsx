@@ -59,34 +59,6 @@ const PostsSection = () => {
     return text.substring(0, maxLength) + '...';
   };
 
-  const extractImageFromContent = (content) => {
-    if (!content) return null;
-    
-    // Tìm thẻ img đầu tiên trong content HTML với nhiều pattern khác nhau
-    const patterns = [
-      /<img[^>]+src="([^"]+)"/i,           // src="url"
-      /<img[^>]+src='([^']+)'/i,           // src='url'
-      /<img[^>]+src=([^\s>]+)/i,           // src=url (không có quotes)
-    ];
-    
-    for (const pattern of patterns) {
-      const match = content.match(pattern);
-      if (match && match[1]) {
-        let imageUrl = match[1];
-        // Loại bỏ quotes nếu có
-        imageUrl = imageUrl.replace(/^["']|["']$/g, '');
-        return imageUrl;
-      }
-    }
-    
-    return null;
-  };
-
-  const stripHtmlTags = (html) => {
-    if (!html) return '';
-    return html.replace(/<[^>]*>/g, '').trim();
-  };
-
   const currentLang = localStorage.getItem('lang') || 'vi';
 
   return (
@@ -103,8 +75,8 @@ const PostsSection = () => {
         ) : (
           <div className="posts-grid">
              {posts.map((post, index) => {
-               const imageUrl = extractImageFromContent(post.content);
-               const cleanContent = stripHtmlTags(post.content);
+               const imageUrl = post.coverImageUrl;
+               const cleanContent = post.excerpt || '';
                
                return (
                  <a key={post.id || index} href={`/post/${post.id}`} className="post-preview">
@@ -117,6 +117,15 @@ export const get360Images = async ({ page = 0, size = 10 } = {}) => (
   await api.get('/api/ggdrive/360-images', { params: { page, size } })
 ).data;
 
+// Tile pyramid of a 360 image ({ baseUrl, tileUrl, levels }); 404 until the backend has generated it
+export const get360Tiles = async (id) => (await api.get(`/api/images/${id}/tiles`)).data;
+
+// LOD manifest of a GLB model ({ previewUrl, previewBytes, fullBytes, ... }); 404 until the backend has built the preview
+export const getModelLod = async (id) => (await api.get(`/api/images/${id}/lod`)).data;
+
+// Absolute URL of a backend path for loaders that fetch on their own (GLTFLoader, ...) instead of through axios
+export const apiUrl = (path) => `${(api.defaults.baseURL || '').replace(/\/$/, '')}${path}`;
+
 export const getListVideoMp4 = async ({ page = 0, size = 10 } = {}) => (
   await api.get('/api/videos', { params: { page, size } })
 ).data;
@@ -54,27 +54,6 @@ export default function PostsList({ auth, onViewPost, onEditPost2 }) {
 
   const canEdit = (roles) => roles?.includes('ADMIN') || roles?.includes('MANAGER');
 
-  const truncateContent = (htmlContent, maxLength = 1000) => {
-    if (!htmlContent) return '';
-
-    // Remove HTML tags to get plain text
-    const textContent = htmlContent.replace(/<[^>]*>/g, '');
-
-    if (textContent.length <= maxLength) {
-      return htmlContent;
-    }
-
-    // Truncate plain text and add ellipsis
-    const truncatedText = textContent.substring(0, maxLength) + '...';
-    return truncatedText;
-  };
-
-  const getFirstImage = (htmlContent) => {
-    if (!htmlContent) return null;
-    const imgMatch = htmlContent.match(/<img[^>]+src="([^"]+)"/);
-    return imgMatch ? imgMatch[1] : null;
-  };
-
   return (
     <div>
       <div style={{ display: 'flex', gap: 12, alignItems: 'center', marginBottom: 12 }}>
@@ -128,10 +107,10 @@ export default function PostsList({ auth, onViewPost, onEditPost2 }) {
             )}
           </div>
           {(() => {
-            const firstImg = getFirstImage(p.content);
+            const firstImg = p.coverImageUrl;
             return firstImg ? <img src={firstImg} alt="image" style={{ maxWidth: '200px', marginBottom: '8px' }} /> : null;
           })()}
-          <div style={{ fontSize: '15px', fontFamily: 'Arial, Verdana, sans-serif', lineHeight: '1.5', textAlign: 'justify' }}>{truncateContent(p.content)}</div>
+          <div style={{ fontSize: '15px', fontFamily: 'Arial, Verdana, sans-serif', lineHeight: '1.5', textAlign: 'justify' }}>{p.excerpt}</div>
           {canEdit(auth.roles) && (
             <div style={{ marginTop: 8, display: 'flex', justifyContent: 'flex-end' }}>
               {/* <button onClick={() => onEditPost(p)}>Sửa</button> */}
@@ -4,6 +4,7 @@ import { useToast } from '../../utils/toastContext';
 import * as THREE from 'three';
 import { GLTFLoader } from 'three/examples/jsm/loaders/GLTFLoader';
 import { OrbitControls } from 'three/examples/jsm/controls/OrbitControls';
+import { apiUrl, getModelLod } from '../../api';
 import Header from '../../Header';
 import Footer from '../../Footer';
 import './3DImageViewer.css';
@@ -25,6 +26,7 @@ export default function Model3DViewer() {
 
   useEffect(() => {
     let scene, camera, renderer, controls;
+    let cancelled = false;
 
     const resizeRenderer = () => {
       if (renderer && mountRef.current && camera) {
@@ -77,20 +79,11 @@ export default function Model3DViewer() {
     controls = new OrbitControls(camera, renderer.domElement);
     controls.enableDamping = true;
 
-    // Extract file ID from either direct Google Drive URL or proxy URL
+    // The DTO url is the (possibly signed) proxy URL built by the backend; use it as is
     let fileId = null;
-    let proxyUrl = modelFromState.url;
-    
-    // Check if it's a direct Google Drive URL
-    const driveMatch = modelFromState.url.match(/\/file\/d\/([a-zA-Z0-9_-]+)/);
-    if (driveMatch) {
-      fileId = driveMatch[1];
-      proxyUrl = `http://localhost:9090/api/ggdrive/proxy/drive?id=${fileId}&name=${modelFromState.name}`;
-    } 
-    // Check if it's already a proxy URL
-    else if (modelFromState.url.includes('/api/ggdrive/proxy/drive')) {
-      // Use the URL as is
-      const urlParams = new URLSearchParams(new URL(modelFromState.url).search);
+    const proxyUrl = modelFromState.url;
+    if (proxyUrl.includes('/api/ggdrive/proxy/drive')) {
+      const urlParams = new URLSearchParams(new URL(proxyUrl, window.location.origin).search);
       fileId = urlParams.get('id');
     }
 
@@ -100,13 +93,28 @@ export default function Model3DViewer() {
       return;
     }
 
+    // Low-poly preview first (when the backend has one), then the full model replaces it
     const loader = new GLTFLoader();
+    let preview = null;
+    let fullLoaded = false;
+    let animating = false;
+
+    const startAnimation = () => {
+      if (!animating) {
+        animating = true;
+        animate();
+      }
+    };
+
     loader.load(
       proxyUrl,
       gltf => {
+        if (cancelled) return;
+        fullLoaded = true;
+        if (preview) scene.remove(preview);
         scene.add(gltf.scene);
         setLoading(false);
-        animate();
+        startAnimation();
       },
       undefined,
       err => {
@@ -115,7 +123,19 @@ export default function Model3DViewer() {
       }
     );
 
+    getModelLod(fileId)
+      .then(lod => new Promise((resolve, reject) => loader.load(apiUrl(lod.previewUrl), resolve, undefined, reject)))
+      .then(gltf => {
+        if (cancelled || fullLoaded) return;
+        preview = gltf.scene;
+        scene.add(preview);
+        setLoading(false);
+        startAnimation();
+      })
+      .catch(() => {}); // no preview yet: the full model shows when it arrives
+
     const animate = () => {
+      if (cancelled) return;
       requestAnimationFrame(animate);
       controls.update();
       renderer.render(scene, camera);
@@ -127,6 +147,7 @@ export default function Model3DViewer() {
     setAudio(bgm);
 
     return () => {
+      cancelled = true;
       if (audio) {
         audio.pause();
         audio.currentTime = 0;
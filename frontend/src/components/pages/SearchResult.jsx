@@ -47,27 +47,6 @@ export default function SearchResult() {
     return () => clearTimeout(handler);
   }, [q]);
 
-  const truncateContent = (htmlContent, maxLength = 1200) => {
-    if (!htmlContent) return '';
-
-    // Remove HTML tags to get plain text
-    const textContent = htmlContent.replace(/<[^>]*>/g, '');
-
-    if (textContent.length <= maxLength) {
-      return htmlContent;
-    }
-
-    // Truncate plain text and add ellipsis
-    const truncatedText = textContent.substring(0, maxLength) + '...';
-    return truncatedText;
-  };
-
-  const getFirstImage = (htmlContent) => {
-    if (!htmlContent) return null;
-    const imgMatch = htmlContent.match(/<img[^>]+src="([^"]+)"/);
-    return imgMatch ? imgMatch[1] : null;
-  };
-
   return (
     <div>
       <Header />
@@ -103,11 +82,12 @@ export default function SearchResult() {
                 </button>
               </h3>
               {(() => {
-                const firstImg = getFirstImage(p.content);
+                const firstImg = p.coverImageUrl;
                 return firstImg ? <img src={firstImg} alt="Post image" style={{ maxWidth: '200px', marginBottom: '8px' }} /> : null;
               })()}
-              <div style={{ fontSize: '15px', fontFamily: 'Arial, Verdana, sans-serif', lineHeight: '1.5', color: '#333', textAlign: 'justify' }}
-                dangerouslySetInnerHTML={{ __html: truncateContent(p.content) }}></div>
+              <div style={{ fontSize: '15px', fontFamily: 'Arial, Verdana, sans-serif', lineHeight: '1.5', color: '#333', textAlign: 'justify' }}>
+                {p.excerpt}
+              </div>
               <div style={{
                 marginTop: '12px',
                 display: 'flex',
@@ -68,27 +68,6 @@ export default function JaraiPage() {
     load();
   }, [language, currentPage]);
 
-  const truncateContent = (htmlContent, maxLength = 1000) => {
-    if (!htmlContent) return '';
-
-    // Remove HTML tags to get plain text
-    const textContent = htmlContent.replace(/<[^>]*>/g, '');
-
-    if (textContent.length <= maxLength) {
-      return htmlContent;
-    }
-
-    // Truncate plain text and add ellipsis
-    const truncatedText = textContent.substring(0, maxLength) + '...';
-    return truncatedText;
-  };
-
-  const getFirstImage = (htmlContent) => {
-    if (!htmlContent) return null;
-    const imgMatch = htmlContent.match(/<img[^>]+src="([^"]+)"/);
-    return imgMatch ? imgMatch[1] : null;
-  };
-
   const handlePostClick = (id) => {
     navigate(`/post/${id}`);
   };
@@ -153,7 +132,7 @@ export default function JaraiPage() {
                 {p.title}
               </h3>
               {(() => {
-                const firstImg = getFirstImage(p.content);
+                const firstImg = p.coverImageUrl;
                 return firstImg ? (
                   <div style={{ 
                     marginBottom: '20px',
@@ -185,7 +164,7 @@ export default function JaraiPage() {
                 fontFamily: 'Arial, Verdana, sans-serif',
                 textAlign: 'justify'
               }}>
-                {truncateContent(p.content)}
+                {p.excerpt}
               </div>
               <div style={{
                 marginTop: '12px',